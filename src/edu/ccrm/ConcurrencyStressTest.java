@@ -0,0 +1,162 @@
+package edu.ccrm;
+
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress run for the thread-safe services
+ * 64 threads race to add the same students and enroll the same student/course pairs; afterwards
+ * every record must exist exactly once and enrollment IDs must be unique with none skipped.
+ * Exits with status 1 if any check fails.
+ */
+public class ConcurrencyStressTest {
+    private static final int THREADS = 64;
+    private static final int STUDENTS = 200;
+    private static final int COURSES = 20;
+    private static final int FIRST_ENROLLMENT_ID = 1000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("==========================================================");
+        System.out.println("    🧪 CCRM Concurrency Stress Test (" + THREADS + " threads)");
+        System.out.println("==========================================================");
+
+        StudentService studentService = new StudentService();
+        EnrollmentService enrollmentService = new EnrollmentService();
+        AtomicInteger studentsAdded = new AtomicInteger();
+        AtomicInteger sharedRegNoClaims = new AtomicInteger();
+        AtomicInteger enrollmentsMade = new AtomicInteger();
+
+        // The services report every change on the console; keep the run quiet
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long startNanos = System.nanoTime();
+        try {
+            race(thread -> {
+                for (int i = 0; i < STUDENTS; i++) {
+                    try {
+                        studentService.addStudent(studentFor(i));
+                        studentsAdded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Another thread added it first
+                    }
+                }
+                // Different IDs, one registration number: only one thread may claim it
+                try {
+                    studentService.addStudent(new Student("DUP" + thread, "Shared Reg " + thread,
+                            "dup" + thread + "@ccrm.edu", "REG-SHARED"));
+                    sharedRegNoClaims.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Registration number already taken
+                }
+            });
+
+            race(thread -> {
+                List<Integer> pairs = new ArrayList<>();
+                for (int i = 0; i < STUDENTS * COURSES; i++) {
+                    pairs.add(i);
+                }
+                Collections.shuffle(pairs, new Random(thread));
+                for (int pair : pairs) {
+                    try {
+                        enrollmentService.enrollStudent(studentIdFor(pair / COURSES), courseCodeFor(pair % COURSES));
+                        enrollmentsMade.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Another thread enrolled this pair first
+                    }
+                }
+            });
+        } finally {
+            System.setOut(console);
+        }
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        int expectedEnrollments = STUDENTS * COURSES;
+        List<Enrollment> enrollments = enrollmentService.getAllEnrollments();
+        Set<String> pairs = new HashSet<>();
+        Set<String> enrollmentIds = new HashSet<>();
+        for (Enrollment enrollment : enrollments) {
+            pairs.add(enrollment.getStudentId() + "/" + enrollment.getCourseCode());
+            enrollmentIds.add(enrollment.getEnrollmentId());
+        }
+        Set<String> expectedIds = new HashSet<>();
+        for (int i = 0; i < expectedEnrollments; i++) {
+            expectedIds.add("ENR" + (FIRST_ENROLLMENT_ID + i));
+        }
+        int courseListTotal = 0;
+        for (int c = 0; c < COURSES; c++) {
+            courseListTotal += enrollmentService.getCourseEnrollments(courseCodeFor(c)).size();
+        }
+
+        boolean passed = true;
+        passed &= check("Each student added exactly once",
+                studentsAdded.get() == STUDENTS && studentService.getAllStudents().size() == STUDENTS + 1);
+        passed &= check("Shared registration number claimed once", sharedRegNoClaims.get() == 1);
+        passed &= check("Each enrollment made exactly once", enrollmentsMade.get() == expectedEnrollments);
+        passed &= check("No duplicate enrollments",
+                enrollments.size() == expectedEnrollments && pairs.size() == expectedEnrollments);
+        passed &= check("No duplicate or lost enrollment IDs", enrollmentIds.equals(expectedIds));
+        passed &= check("Course lists match enrollments", courseListTotal == expectedEnrollments);
+
+        System.out.println("\n⏱️  Completed in " + elapsedMillis + " ms");
+        if (!passed) {
+            System.err.println("❌ Concurrency stress test failed");
+            System.exit(1);
+        }
+        System.out.println("✅ Concurrency stress test passed");
+    }
+
+    /**
+     * Start every thread at once and wait for all of them
+     */
+    private static void race(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean check(String description, boolean condition) {
+        System.out.println((condition ? "✅ " : "❌ ") + description);
+        return condition;
+    }
+
+    private static Student studentFor(int index) {
+        return new Student(studentIdFor(index), "Stress Student " + index,
+                "stress" + index + "@ccrm.edu", "REG" + index);
+    }
+
+    private static String studentIdFor(int index) {
+        return "STU" + index;
+    }
+
+    private static String courseCodeFor(int index) {
+        return "CS" + (100 + index);
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,266 @@
+package edu.ccrm;
+
+import edu.ccrm.io.CsvTokenizer;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Comparison of the byte-level CsvTokenizer with the String parser it replaced
+ * Generates a 1M-row student CSV with quoted fields, embedded commas and quotes, padding and
+ * multi-byte names, checks that both parsers produce the same fields for every line, then times
+ * each the way its import path reads a file. Exits with status 1 if the outputs differ.
+ */
+public class CsvParserBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+    private static final int MAX_REPORTED_MISMATCHES = 5;
+
+    private static final String[] NAMES = {"Ann Lee", "Bob Ray", "Zoë Müller", "José Núñez", "Li Wei 李伟",
+                                           "Priya Sharma", "Søren Kierkegaard", "O'Brien, Pat"};
+    private static final String[] DEPARTMENTS = {"Computer Science", "Mathematics", "Physics",
+                                                 "Electrical \"EE\" Engineering", "Arts, Humanities"};
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("==========================================================");
+        System.out.println("    📄 CCRM CSV Parser Comparison (" + ROWS + " rows)");
+        System.out.println("==========================================================");
+
+        Path file = Files.createTempFile("ccrm-csv-benchmark", ".csv");
+        try {
+            generate(file);
+            System.out.println("Generated " + Files.size(file) / (1024 * 1024) + " MB at " + file.toAbsolutePath());
+
+            int mismatches = compare(file);
+            if (mismatches > 0) {
+                System.err.println("❌ " + mismatches + " line(s) parsed differently; CSV parser comparison failed");
+                System.exit(1);
+            }
+            System.out.println("✅ Both parsers produce the same fields for every line");
+
+            long stringDigest = 0;
+            long tokenizerDigest = 0;
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                stringDigest = parseWithStrings(file);
+                tokenizerDigest = parseWithTokenizer(file);
+            }
+            long stringNanos = Long.MAX_VALUE;
+            long tokenizerNanos = Long.MAX_VALUE;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                long start = System.nanoTime();
+                stringDigest = parseWithStrings(file);
+                stringNanos = Math.min(stringNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                tokenizerDigest = parseWithTokenizer(file);
+                tokenizerNanos = Math.min(tokenizerNanos, System.nanoTime() - start);
+            }
+
+            if (stringDigest != tokenizerDigest) {
+                System.err.println("❌ Import paths read different data; CSV parser comparison failed");
+                System.exit(1);
+            }
+            System.out.println(String.format("⏱️  String parser : %8.1f ms", stringNanos / 1_000_000.0));
+            System.out.println(String.format("⏱️  CsvTokenizer  : %8.1f ms (%.1fx faster)",
+                tokenizerNanos / 1_000_000.0, (double) stringNanos / tokenizerNanos));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Write the header and ROWS data rows, with blank lines and CRLF endings mixed in
+     */
+    private static void generate(Path file) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("ID,RegNo,FullName,Email,Phone,Department,Semester\n");
+            for (int i = 0; i < ROWS; i++) {
+                String name = NAMES[random.nextInt(NAMES.length)];
+                String department = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+                StringBuilder row = new StringBuilder(96);
+                row.append(pad(random, "STU" + i)).append(',')
+                   .append("REG").append(i).append(',')
+                   .append(quote(random, name)).append(',')
+                   .append("student").append(i).append("@ccrm.edu").append(',')
+                   .append(random.nextInt(4) == 0 ? "" : "+91 " + (9_000_000_000L + random.nextInt(1_000_000_000)))
+                   .append(',')
+                   .append(quote(random, department)).append(',')
+                   .append(pad(random, Integer.toString(1 + random.nextInt(8))));
+                writer.write(row.toString());
+                writer.write(random.nextInt(10) == 0 ? "\r\n" : "\n");
+                if (random.nextInt(500) == 0) {
+                    writer.write("   \n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Quote a value when the CSV needs it, and sometimes when it does not
+     */
+    private static String quote(Random random, String value) {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0;
+        if (!needsQuotes && random.nextInt(3) != 0) {
+            return pad(random, value);
+        }
+        return "\"" + pad(random, value.replace("\"", "\"\"")) + "\"";
+    }
+
+    private static String pad(Random random, String value) {
+        return random.nextInt(5) == 0 ? "  " + value + " " : value;
+    }
+
+    /**
+     * Parse every line with both parsers and count the lines where they disagree
+     */
+    private static int compare(Path file) throws IOException {
+        CsvTokenizer tokenizer = new CsvTokenizer();
+        int mismatches = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                tokenizer.tokenize(line);
+
+                boolean same;
+                List<String> expected = trimmed.isEmpty() ? null : trimmedFields(trimmed);
+                if (expected == null || tokenizer.isBlankLine()) {
+                    same = expected == null && tokenizer.isBlankLine();
+                } else {
+                    same = expected.equals(tokenizedFields(tokenizer));
+                }
+
+                if (!same) {
+                    if (++mismatches <= MAX_REPORTED_MISMATCHES) {
+                        System.err.println("❌ Line " + lineNumber + ": " + line);
+                    }
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * The old import path: read Strings line by line and split them with parseCSVLine
+     */
+    private static long parseWithStrings(Path file) throws IOException {
+        long digest = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                for (String field : parseCSVLine(line)) {
+                    digest = digest * 31 + field.trim().hashCode();
+                }
+            }
+        }
+        return digest;
+    }
+
+    /**
+     * The current import path: read bytes into one reused buffer and tokenize lines in place
+     */
+    private static long parseWithTokenizer(Path file) throws IOException {
+        CsvTokenizer tokenizer = new CsvTokenizer();
+        long digest = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                endOfFile = channel.read(buffer) < 0;
+                int limit = buffer.position();
+                int lineStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (buffer.get(i) == '\n') {
+                        digest = digestLine(tokenizer, buffer, lineStart, i, digest);
+                        lineStart = i + 1;
+                    }
+                }
+                if (endOfFile && lineStart < limit) {
+                    digest = digestLine(tokenizer, buffer, lineStart, limit, digest);
+                    lineStart = limit;
+                }
+                buffer.limit(limit).position(lineStart);
+                buffer.compact();
+            }
+        }
+        return digest;
+    }
+
+    private static long digestLine(CsvTokenizer tokenizer, ByteBuffer buffer, int start, int end, long digest) {
+        tokenizer.tokenize(buffer, start, end);
+        if (tokenizer.isBlankLine()) {
+            return digest;
+        }
+        for (int field = 0; field < tokenizer.getFieldCount(); field++) {
+            digest = digest * 31 + tokenizer.getString(field).hashCode();
+        }
+        return digest;
+    }
+
+    private static List<String> trimmedFields(String line) {
+        List<String> fields = new ArrayList<>();
+        for (String field : parseCSVLine(line)) {
+            fields.add(field.trim());
+        }
+        return fields;
+    }
+
+    private static List<String> tokenizedFields(CsvTokenizer tokenizer) {
+        List<String> fields = new ArrayList<>(tokenizer.getFieldCount());
+        for (int field = 0; field < tokenizer.getFieldCount(); field++) {
+            fields.add(tokenizer.getString(field));
+        }
+        return fields;
+    }
+
+    /**
+     * The String parser DataImportService used before CsvTokenizer, kept here for comparison
+     */
+    private static String[] parseCSVLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder currentField = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '\"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '\"') {
+                    // Escaped quote
+                    currentField.append('\"');
+                    i++; // Skip next quote
+                } else {
+                    // Toggle quote state
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                // Field separator
+                fields.add(currentField.toString());
+                currentField = new StringBuilder();
+            } else {
+                currentField.append(c);
+            }
+        }
+
+        // Add the last field
+        fields.add(currentField.toString());
+
+        return fields.toArray(new String[0]);
+    }
+}
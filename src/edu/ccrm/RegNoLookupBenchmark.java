@@ -0,0 +1,129 @@
+package edu.ccrm;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.StudentService;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Benchmark for registration number lookups at 10k, 100k and 1M students
+ * Times findStudentByRegNo through the regNo index against the stream scan over every student
+ * that it replaced, and checks both find the same student. Exits with status 1 on a mismatch.
+ */
+public class RegNoLookupBenchmark {
+    private static final int[] STUDENT_COUNTS = {10_000, 100_000, 1_000_000};
+    private static final int INDEXED_LOOKUPS = 200_000;
+    private static final int SCAN_LOOKUPS = 200;
+    private static final int WARMUP_ROUNDS = 3;
+
+    // Keeps the JIT from discarding the timed loops
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        System.out.println("==========================================================");
+        System.out.println("    ⏱️  CCRM Registration Number Lookup Benchmark");
+        System.out.println("==========================================================");
+        System.out.println(String.format("%10s %14s %14s %10s", "Students", "Index ns/op", "Scan ns/op", "Speedup"));
+
+        boolean passed = true;
+        for (int count : STUDENT_COUNTS) {
+            StudentService studentService = populate(count);
+            List<Student> snapshot = studentService.getAllStudents();
+            Random random = new Random(count);
+            String[] indexedKeys = randomRegNos(random, count, INDEXED_LOOKUPS);
+            String[] scanKeys = randomRegNos(random, count, SCAN_LOOKUPS);
+
+            for (String regNo : scanKeys) {
+                Student indexed = studentService.findStudentByRegNo(regNo).orElse(null);
+                Student scanned = scan(snapshot, regNo).orElse(null);
+                if (indexed == null || indexed != scanned) {
+                    System.err.println("❌ Lookups disagree for " + regNo + " at " + count + " students");
+                    passed = false;
+                }
+            }
+
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                timeIndexed(studentService, indexedKeys);
+                timeScan(snapshot, scanKeys);
+            }
+            double indexedNanos = (double) timeIndexed(studentService, indexedKeys) / indexedKeys.length;
+            double scanNanos = (double) timeScan(snapshot, scanKeys) / scanKeys.length;
+            System.out.println(String.format("%10d %14.1f %14.1f %9.0fx", count, indexedNanos, scanNanos,
+                scanNanos / indexedNanos));
+        }
+
+        if (!passed) {
+            System.err.println("❌ Registration number lookup benchmark failed");
+            System.exit(1);
+        }
+        System.out.println("✅ Index and scan agree at every size");
+    }
+
+    private static StudentService populate(int count) {
+        StudentService studentService = new StudentService();
+        // addStudent reports every student on the console; keep the setup quiet
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < count; i++) {
+                studentService.addStudent(new Student("STU" + i, "Bench Student " + i,
+                        "bench" + i + "@ccrm.edu", regNoFor(i)));
+            }
+        } finally {
+            System.setOut(console);
+        }
+        return studentService;
+    }
+
+    private static long timeIndexed(StudentService studentService, String[] regNos) {
+        long found = 0;
+        long start = System.nanoTime();
+        for (String regNo : regNos) {
+            if (studentService.findStudentByRegNo(regNo).isPresent()) {
+                found++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(found);
+        return elapsed;
+    }
+
+    private static long timeScan(List<Student> students, String[] regNos) {
+        long found = 0;
+        long start = System.nanoTime();
+        for (String regNo : regNos) {
+            if (scan(students, regNo).isPresent()) {
+                found++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(found);
+        return elapsed;
+    }
+
+    /**
+     * The lookup findStudentByRegNo used before the index
+     */
+    private static Optional<Student> scan(List<Student> students, String regNo) {
+        return students.stream()
+                .filter(s -> s.getRegNo().equals(regNo))
+                .findFirst();
+    }
+
+    private static String[] randomRegNos(Random random, int count, int lookups) {
+        String[] regNos = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            regNos[i] = regNoFor(random.nextInt(count));
+        }
+        return regNos;
+    }
+
+    private static String regNoFor(int index) {
+        return "REG" + index;
+    }
+
+    private static void consume(long value) {
+        sink += value;
+    }
+}
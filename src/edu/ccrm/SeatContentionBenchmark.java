@@ -0,0 +1,94 @@
+package edu.ccrm;
+
+import edu.ccrm.domain.Course;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contention benchmark for course seat reservation
+ * 10,000 clients race for the 50 seats of one course, over several rounds. Every round must
+ * seat exactly 50 clients; the run exits with status 1 if any round seats more (or fewer).
+ */
+public class SeatContentionBenchmark {
+    private static final int CLIENTS = 10_000;
+    private static final int SEATS = 50;
+    private static final int THREADS = 64;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("==========================================================");
+        System.out.println("    🎟️  CCRM Seat Contention Benchmark");
+        System.out.println("    " + CLIENTS + " clients, " + SEATS + " seats, " + THREADS + " threads");
+        System.out.println("==========================================================");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        boolean passed = true;
+        long totalNanos = 0;
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                Course course = new Course.Builder("CS" + (100 + round), "Contention Round " + round, 3)
+                        .setMaxCapacity(SEATS)
+                        .build();
+                AtomicInteger seated = new AtomicInteger();
+
+                // Course reports every seat and every refusal on the console; keep the race quiet
+                PrintStream console = System.out;
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                long elapsed;
+                try {
+                    elapsed = race(executor, course, seated);
+                } finally {
+                    System.setOut(console);
+                }
+                totalNanos += elapsed;
+
+                boolean ok = seated.get() == SEATS && course.getEnrolledCount() == SEATS &&
+                             course.getEnrolledStudents().size() == SEATS;
+                if (!ok) {
+                    System.err.println("❌ Round " + round + ": " + seated.get() + " clients seated, counter " +
+                        course.getEnrolledCount() + ", roster " + course.getEnrolledStudents().size());
+                    passed = false;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double millisPerRound = totalNanos / 1_000_000.0 / ROUNDS;
+        System.out.println(String.format("⏱️  %.2f ms per round, %.0f requests/s", millisPerRound,
+            CLIENTS / (millisPerRound / 1000.0)));
+        if (!passed) {
+            System.err.println("❌ Seat contention benchmark failed");
+            System.exit(1);
+        }
+        System.out.println("✅ Exactly " + SEATS + " clients seated in all " + ROUNDS + " rounds");
+    }
+
+    /**
+     * Release every client at once and wait for all of them; returns the elapsed nanoseconds
+     */
+    private static long race(ExecutorService executor, Course course, AtomicInteger seated) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            String studentId = "STU" + i;
+            clients.add(executor.submit(() -> {
+                start.await();
+                if (course.addStudent(studentId)) {
+                    seated.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> client : clients) {
+            client.get();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -3,18 +3,38 @@ package edu.ccrm.cli;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.*;
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.io.BackupArchive;
+import edu.ccrm.io.BackupScheduler;
+import edu.ccrm.io.Checkpointer;
+import edu.ccrm.io.IncrementalBackupService;
+import edu.ccrm.io.SnapshotService;
+import edu.ccrm.io.WriteAheadLog;
 import edu.ccrm.util.RecursionUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * FIXED Command Line Interface Manager
  * Handles all user interactions and menu operations
  */
 public class CLIManager {
+    private static final int MAX_SUGGESTIONS = 5;
+    private static final int MAX_NAME_EDITS = 2;
+    private static final int TOP_STUDENTS = 5;
+
     private final Scanner scanner;
     private final StudentService studentService;
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
+    private final SnapshotService snapshotService;
+    private final IncrementalBackupService backupService;
+    private final BackupScheduler backupScheduler;
+    private WriteAheadLog writeAheadLog;
+    private Checkpointer checkpointer;
     private boolean running;
 
     public CLIManager() {
@@ -22,10 +42,98 @@ public class CLIManager {
         this.studentService = new StudentService();
         this.courseService = new CourseService();
         this.enrollmentService = new EnrollmentService();
+        this.snapshotService = new SnapshotService();
         this.running = true;
 
-        // Load sample data for demonstration
-        loadSampleData();
+        // Restore the latest checkpoint (or manual snapshot) and replay the log on top of it
+        long checkpointLsn = loadLatestCheckpoint();
+        if (checkpointLsn < 0 && Files.exists(getSnapshotPath())) {
+            loadSnapshot();
+        }
+        openWriteAheadLog(Math.max(checkpointLsn, 0));
+
+        // Track changes from here on so backups only write what changed
+        AppConfig config = AppConfig.getInstance();
+        this.backupService = new IncrementalBackupService(config.getBackupPath("incremental"), snapshotService,
+            studentService, courseService, enrollmentService, config.getBackupMaxDeltas());
+        backupService.register();
+        this.backupScheduler = new BackupScheduler(Path.of(config.getBackupFolderPath()), studentService,
+            courseService, enrollmentService, config.getBackupIntervalMinutes() * 60_000,
+            config.getBackupWorkerThreads(), config.getBackupArchivesToKeep());
+        backupScheduler.start();
+
+        // Load sample data for demonstration only when nothing was restored
+        if (studentService.getAllStudents().isEmpty() && courseService.getAllCourses().isEmpty()) {
+            loadSampleData();
+        }
+    }
+
+    /**
+     * Load the newest checkpoint, returning the log LSN it covers or -1 if none was loaded
+     */
+    private long loadLatestCheckpoint() {
+        if (!AppConfig.getInstance().isWalEnabled()) {
+            return -1;
+        }
+
+        try {
+            Path checkpoint = Checkpointer.findLatestCheckpoint(getCheckpointDirectory());
+            if (checkpoint == null) {
+                return -1;
+            }
+            SnapshotService.SnapshotSummary summary = 
+                snapshotService.loadSnapshot(checkpoint, studentService, courseService, enrollmentService);
+            System.out.println("✅ Checkpoint loaded: " + summary.getStudentCount() + " students, " +
+                summary.getCourseCount() + " courses, " + summary.getEnrollmentCount() + " enrollments");
+            return summary.getLogLsn();
+        } catch (Exception e) {
+            System.err.println("❌ Failed to load checkpoint: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Replay the write-ahead log after the checkpoint and start logging new changes, if enabled
+     */
+    private void openWriteAheadLog(long checkpointLsn) {
+        AppConfig config = AppConfig.getInstance();
+        if (!config.isWalEnabled()) {
+            return;
+        }
+
+        try {
+            writeAheadLog = new WriteAheadLog(config.getDataPath("wal"), 
+                config.getWalGroupCommitMillis(), config.getWalSegmentSizeBytes());
+            writeAheadLog.recover(checkpointLsn, studentService, courseService, enrollmentService);
+        } catch (Exception e) {
+            System.err.println("⚠️  Warning: Write-ahead log unavailable, changes will not survive a restart: " 
+                + e.getMessage());
+            writeAheadLog = null;
+            return;
+        }
+
+        checkpointer = new Checkpointer(getCheckpointDirectory(), writeAheadLog, snapshotService,
+            studentService, courseService, enrollmentService, config.getCheckpointLogBytes(),
+            config.getCheckpointIntervalSeconds() * 1000, checkpointLsn);
+        checkpointer.start();
+    }
+
+    private Path getCheckpointDirectory() {
+        return AppConfig.getInstance().getDataPath("checkpoints");
+    }
+
+    private void closeWriteAheadLog() {
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+        if (writeAheadLog == null) {
+            return;
+        }
+        try {
+            writeAheadLog.close();
+        } catch (Exception e) {
+            System.err.println("⚠️  Warning: Could not close write-ahead log: " + e.getMessage());
+        }
     }
 
     /**
@@ -48,6 +156,8 @@ public class CLIManager {
             }
         }
 
+        backupScheduler.close();
+        closeWriteAheadLog();
         displayGoodbyeMessage();
         scanner.close();
     }
@@ -294,8 +404,8 @@ public class CLIManager {
         System.out.println("       ENROLL STUDENT");
         System.out.println("=".repeat(40));
 
-        String studentId = getInputString("Enter Student ID: ");
-        String courseCode = getInputString("Enter Course Code: ");
+        String studentId = readStudentId("Enter Student ID: ");
+        String courseCode = readCourseCode("Enter Course Code: ");
 
         try {
             enrollmentService.enrollStudent(studentId, courseCode);
@@ -314,23 +424,25 @@ public class CLIManager {
             System.out.println("            GRADE MANAGEMENT");
             System.out.println("=".repeat(50));
             System.out.println("1. 📝 Assign Grade");
-            System.out.println("2. 🎓 Generate Transcript");
-            System.out.println("3. 🔙 Back to Main Menu");
+            System.out.println("2. 📋 Post Course Grades");
+            System.out.println("3. 🎓 Generate Transcript");
+            System.out.println("4. 🔙 Back to Main Menu");
             System.out.println("=".repeat(50));
 
-            int choice = getUserChoice(1, 3);
+            int choice = getUserChoice(1, 4);
 
             try {
                 switch (choice) {
                     case 1 -> assignGrade();
-                    case 2 -> generateTranscript();
-                    case 3 -> { return; }
+                    case 2 -> postCourseGrades();
+                    case 3 -> generateTranscript();
+                    case 4 -> { return; }
                 }
             } catch (Exception e) {
                 System.err.println("\n❌ Error: " + e.getMessage());
             }
 
-            if (choice != 3) {
+            if (choice != 4) {
                 pressEnterToContinue();
             }
         }
@@ -344,8 +456,8 @@ public class CLIManager {
         System.out.println("         ASSIGN GRADE");
         System.out.println("=".repeat(40));
 
-        String studentId = getInputString("Enter Student ID: ");
-        String courseCode = getInputString("Enter Course Code: ");
+        String studentId = readStudentId("Enter Student ID: ");
+        String courseCode = readCourseCode("Enter Course Code: ");
 
         System.out.println("\nSelect Grade:");
         Grade[] grades = Grade.values();
@@ -357,13 +469,65 @@ public class CLIManager {
         Grade selectedGrade = grades[gradeChoice - 1];
 
         try {
-            enrollmentService.assignGrade(studentId, courseCode, selectedGrade);
+            // One batch, so the enrollment and the student record reach the log together
+            MutationBatch.run(() -> {
+                enrollmentService.assignGrade(studentId, courseCode, selectedGrade);
+                studentService.recordGrade(studentId, courseCode, selectedGrade);
+            });
             System.out.println("\n✅ Grade assigned successfully!");
         } catch (Exception e) {
             System.err.println("\n❌ Failed to assign grade: " + e.getMessage());
         }
     }
 
+    /**
+     * Enter grades for every active enrollment in a course and post them together
+     */
+    private void postCourseGrades() {
+        System.out.println("\n" + "=".repeat(40));
+        System.out.println("       POST COURSE GRADES");
+        System.out.println("=".repeat(40));
+
+        String courseCode = readCourseCode("Enter Course Code: ");
+        List<Enrollment> enrollments = enrollmentService.getCourseEnrollments(courseCode).stream()
+                .filter(Enrollment::isActive)
+                .collect(Collectors.toList());
+        if (enrollments.isEmpty()) {
+            System.out.println("\n❌ No active enrollments found for course: " + courseCode);
+            return;
+        }
+
+        System.out.println("Grades: " + Arrays.toString(Grade.values()) + " (press Enter to skip a student)");
+        Map<String, Grade> grades = new LinkedHashMap<>();
+        for (Enrollment enrollment : enrollments) {
+            while (true) {
+                String input = getInputString("Grade for " + enrollment.getStudentId() + ": ").toUpperCase();
+                if (input.isEmpty()) {
+                    break;
+                }
+                try {
+                    grades.put(enrollment.getStudentId(), Grade.valueOf(input));
+                    break;
+                } catch (IllegalArgumentException e) {
+                    System.out.println("❌ Unknown grade: " + input);
+                }
+            }
+        }
+
+        Map<String, String> failures = MutationBatch.call(() -> {
+            Map<String, String> rejected = enrollmentService.postGrades(courseCode, grades);
+            grades.forEach((studentId, grade) -> {
+                if (!rejected.containsKey(studentId)) {
+                    studentService.recordGrade(studentId, courseCode, grade);
+                }
+            });
+            return rejected;
+        });
+        failures.forEach((studentId, reason) ->
+            System.err.println("❌ " + studentId + ": " + reason));
+        System.out.println("\n✅ Posted " + (grades.size() - failures.size()) + " of " + grades.size() + " grade(s)");
+    }
+
     /**
      * Generate and display transcript
      */
@@ -372,7 +536,7 @@ public class CLIManager {
         System.out.println("       GENERATE TRANSCRIPT");
         System.out.println("=".repeat(40));
 
-        String studentId = getInputString("Enter Student ID: ");
+        String studentId = readStudentId("Enter Student ID: ");
 
         try {
             enrollmentService.generateTranscript(studentId);
@@ -392,28 +556,151 @@ public class CLIManager {
             System.out.println("1. 🔢 Recursion Demonstrations");
             System.out.println("2. 🎲 Generate Student IDs");
             System.out.println("3. 📊 Sorting Demonstrations");
-            System.out.println("4. 🔙 Back to Main Menu");
+            System.out.println("4. 💾 Save Binary Snapshot");
+            System.out.println("5. 📂 Load Binary Snapshot");
+            System.out.println("6. 🗄️  Incremental Backup");
+            System.out.println("7. ♻️  Restore from Backups");
+            System.out.println("8. 📦 Create Backup Archive");
+            System.out.println("9. 🔍 Verify Latest Backup Archive");
+            System.out.println("10. 📥 Restore Latest Backup Archive");
+            System.out.println("11. 📈 Background Backup Status");
+            System.out.println("12. 🔙 Back to Main Menu");
             System.out.println("=".repeat(50));
 
-            int choice = getUserChoice(1, 4);
+            int choice = getUserChoice(1, 12);
 
             try {
                 switch (choice) {
                     case 1 -> RecursionUtils.demonstrateRecursion();
                     case 2 -> demonstrateIdGeneration();
                     case 3 -> demonstrateSorting();
-                    case 4 -> { return; }
+                    case 4 -> saveSnapshot();
+                    case 5 -> loadSnapshot();
+                    case 6 -> runIncrementalBackup();
+                    case 7 -> restoreFromBackups();
+                    case 8 -> createBackupArchive();
+                    case 9 -> verifyBackupArchive();
+                    case 10 -> restoreBackupArchive();
+                    case 11 -> backupScheduler.getMetrics().displayMetrics();
+                    case 12 -> { return; }
                 }
             } catch (Exception e) {
                 System.err.println("\n❌ Error: " + e.getMessage());
             }
 
-            if (choice != 4) {
+            if (choice != 12) {
                 pressEnterToContinue();
             }
         }
     }
 
+    /**
+     * Save the full state to the binary snapshot file
+     */
+    private void saveSnapshot() {
+        try {
+            snapshotService.writeSnapshot(getSnapshotPath(), studentService, courseService, enrollmentService)
+                           .displaySummary();
+            System.out.println("✅ Snapshot saved");
+        } catch (Exception e) {
+            System.err.println("❌ Failed to save snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load the binary snapshot file into the services
+     */
+    private void loadSnapshot() {
+        try {
+            snapshotService.loadSnapshot(getSnapshotPath(), studentService, courseService, enrollmentService)
+                           .displaySummary();
+            System.out.println("✅ Snapshot loaded");
+        } catch (Exception e) {
+            System.err.println("❌ Failed to load snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write a delta of the changes since the last backup, or a new base when one is due
+     */
+    private void runIncrementalBackup() {
+        try {
+            backupService.backup().displayResult();
+        } catch (Exception e) {
+            System.err.println("❌ Backup failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Apply the base backup and its deltas to the current state
+     */
+    private void restoreFromBackups() {
+        try {
+            backupService.restore().displayResult();
+        } catch (Exception e) {
+            System.err.println("❌ Restore failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue a compressed archive of all data; it is written in the background
+     */
+    private void createBackupArchive() {
+        backupScheduler.requestBackup();
+        System.out.println("✅ Backup archive started in the background; see Background Backup Status");
+    }
+
+    /**
+     * Check every block of the newest background archive against its checksum
+     */
+    private void verifyBackupArchive() {
+        try {
+            Path latest = BackupArchive.findLatestArchive(Path.of(AppConfig.getInstance().getBackupFolderPath()),
+                                                          BackupScheduler.FILE_PREFIX);
+            if (latest == null) {
+                System.out.println("❌ No backup archive found");
+                return;
+            }
+            try (BackupArchive archive = BackupArchive.open(latest)) {
+                List<Integer> damaged = archive.verify();
+                if (damaged.isEmpty()) {
+                    System.out.println("✅ " + latest.getFileName() + ": all " + archive.getBlockCount() +
+                        " blocks verified");
+                } else {
+                    System.out.println("❌ " + latest.getFileName() + ": damaged blocks " + damaged);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Failed to verify backup archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Install every record of the newest background archive; each block is checked against
+     * its checksum as it is read, and nothing is installed if any block is damaged
+     */
+    private void restoreBackupArchive() {
+        try {
+            Path latest = BackupArchive.findLatestArchive(Path.of(AppConfig.getInstance().getBackupFolderPath()),
+                                                          BackupScheduler.FILE_PREFIX);
+            if (latest == null) {
+                System.out.println("❌ No backup archive found");
+                return;
+            }
+            try (BackupArchive archive = BackupArchive.open(latest)) {
+                archive.restore(studentService, courseService, enrollmentService,
+                                AppConfig.getInstance().getBackupWorkerThreads()).displaySummary();
+            }
+            System.out.println("✅ Restored from " + latest.getFileName());
+        } catch (Exception e) {
+            System.err.println("❌ Failed to restore backup archive: " + e.getMessage());
+        }
+    }
+
+    private Path getSnapshotPath() {
+        return AppConfig.getInstance().getDataPath("ccrm.snapshot");
+    }
+
     /**
      * Demonstrate ID generation
      */
@@ -464,7 +751,13 @@ public class CLIManager {
         var results = studentService.searchStudentsByName(name);
 
         if (results.isEmpty()) {
-            System.out.println("\n❌ No students found matching: " + name);
+            var similar = studentService.searchStudentsByNameFuzzy(name, MAX_NAME_EDITS);
+            if (similar.isEmpty()) {
+                System.out.println("\n❌ No students found matching: " + name);
+            } else {
+                System.out.println("\n💡 No exact match; " + similar.size() + " student(s) with a similar name:");
+                similar.forEach(Student::displayInfo);
+            }
         } else {
             System.out.println("\n✅ Found " + results.size() + " student(s):");
             results.forEach(Student::displayInfo);
@@ -494,7 +787,7 @@ public class CLIManager {
     }
 
     private void viewStudentEnrollments() {
-        String studentId = getInputString("\nEnter Student ID: ");
+        String studentId = readStudentId("\nEnter Student ID: ");
         var enrollments = enrollmentService.getStudentEnrollments(studentId);
 
         if (enrollments.isEmpty()) {
@@ -506,7 +799,7 @@ public class CLIManager {
     }
 
     private void viewCourseEnrollments() {
-        String courseCode = getInputString("\nEnter Course Code: ");
+        String courseCode = readCourseCode("\nEnter Course Code: ");
         var enrollments = enrollmentService.getCourseEnrollments(courseCode);
 
         if (enrollments.isEmpty()) {
@@ -521,10 +814,25 @@ public class CLIManager {
         System.out.println("\n📊 REPORTS & STATISTICS");
         System.out.println("-".repeat(30));
         showStudentStatistics();
+        showTopStudents();
         showCourseStatistics();
         enrollmentService.displayEnrollmentStatistics();
     }
 
+    private void showTopStudents() {
+        var topStudents = studentService.getTopStudents(TOP_STUDENTS);
+        if (topStudents.isEmpty()) {
+            return;
+        }
+
+        System.out.println("\n🏆 Top Students by GPA:");
+        for (Student student : topStudents) {
+            System.out.println("  #" + studentService.getClassRank(student.getId()) + " " + student.getFullName() +
+                " (GPA: " + String.format("%.2f", student.getGpa()) + ", above " +
+                String.format("%.1f", studentService.getGpaPercentile(student.getId())) + "% of students)");
+        }
+    }
+
     private void handleSystemConfiguration() { AppConfig.getInstance().displayConfig(); }
 
     private void handleHelpAndInformation() {
@@ -601,6 +909,47 @@ public class CLIManager {
         return scanner.nextLine().trim();
     }
 
+    /**
+     * Read the ID of an existing student, completing a partial ID
+     */
+    private String readStudentId(String prompt) {
+        return readCompleted(prompt, id -> studentService.findStudentById(id).isPresent(),
+                             prefix -> studentService.completeStudentIds(prefix, MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Read the code of an existing course, completing a partial code
+     */
+    private String readCourseCode(String prompt) {
+        return readCompleted(prompt, code -> courseService.findCourseByCode(code).isPresent(),
+                             prefix -> courseService.completeCourseCodes(prefix, MAX_SUGGESTIONS));
+    }
+
+    /**
+     * An unknown entry with one completion is replaced by it; with several, they are listed
+     * and the user is asked again; with none, the entry is returned as typed
+     */
+    private String readCompleted(String prompt, Predicate<String> exists,
+                                 Function<String, List<String>> completer) {
+        while (true) {
+            String input = getInputString(prompt);
+            if (input.isEmpty() || exists.test(input)) {
+                return input;
+            }
+
+            List<String> completions = completer.apply(input);
+            if (completions.isEmpty()) {
+                return input;
+            }
+            if (completions.size() == 1) {
+                System.out.println("💡 Using " + completions.get(0));
+                return completions.get(0);
+            }
+            System.out.println("💡 Did you mean: " + String.join(", ", completions) +
+                (completions.size() == MAX_SUGGESTIONS ? ", ..." : ""));
+        }
+    }
+
     private void pressEnterToContinue() {
         System.out.print("\n⏸️  Press Enter to continue...");
         scanner.nextLine();
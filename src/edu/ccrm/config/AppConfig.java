@@ -20,6 +20,16 @@ public class AppConfig {
     private boolean debugMode;
     private int maxStudentsPerCourse;
     private int maxCoursesPerStudent;
+    private int importWorkerThreads;
+    private boolean walEnabled;
+    private long walGroupCommitMillis;
+    private long walSegmentSizeBytes;
+    private long checkpointLogBytes;
+    private long checkpointIntervalSeconds;
+    private int backupMaxDeltas;
+    private int backupWorkerThreads;
+    private long backupIntervalMinutes;
+    private int backupArchivesToKeep;
     private String applicationName;
     private String version;
     private Properties customProperties;
@@ -58,6 +68,16 @@ public class AppConfig {
         this.debugMode = false;
         this.maxStudentsPerCourse = 50;
         this.maxCoursesPerStudent = 8;
+        this.importWorkerThreads = Runtime.getRuntime().availableProcessors();
+        this.walEnabled = true;
+        this.walGroupCommitMillis = 2;
+        this.walSegmentSizeBytes = 64L * 1024 * 1024;
+        this.checkpointLogBytes = 32L * 1024 * 1024;
+        this.checkpointIntervalSeconds = 600;
+        this.backupMaxDeltas = 24;
+        this.backupWorkerThreads = Runtime.getRuntime().availableProcessors();
+        this.backupIntervalMinutes = 60;
+        this.backupArchivesToKeep = 24;
         this.customProperties = new Properties();
 
         createDirectoriesIfNotExist();
@@ -137,6 +157,19 @@ public class AppConfig {
         System.out.println("Debug Mode           : " + (debugMode ? "ON" : "OFF"));
         System.out.println("Max Students/Course  : " + maxStudentsPerCourse);
         System.out.println("Max Courses/Student  : " + maxCoursesPerStudent);
+        System.out.println("Import Workers       : " + importWorkerThreads);
+        System.out.println("Write-Ahead Log      : " + (walEnabled ? "ON" : "OFF"));
+        System.out.println("WAL Group Commit     : " + walGroupCommitMillis + " ms");
+        System.out.println("WAL Segment Size     : " + walSegmentSizeBytes + " bytes");
+        System.out.println("Checkpoint Log Size  : " + checkpointLogBytes + " bytes");
+        System.out.println("Checkpoint Interval  : " + 
+            (checkpointIntervalSeconds > 0 ? checkpointIntervalSeconds + " s" : "OFF"));
+        System.out.println("Backup Max Deltas    : " + backupMaxDeltas);
+        System.out.println("Backup Workers       : " + backupWorkerThreads);
+        System.out.println("Backup Interval      : " + 
+            (backupIntervalMinutes > 0 ? backupIntervalMinutes + " min" : "OFF"));
+        System.out.println("Backup Archives Kept : " + 
+            (backupArchivesToKeep > 0 ? String.valueOf(backupArchivesToKeep) : "ALL"));
         System.out.println("=".repeat(50));
     }
 
@@ -178,6 +211,96 @@ public class AppConfig {
         this.maxCoursesPerStudent = maxCoursesPerStudent;
     }
 
+    public int getImportWorkerThreads() { return importWorkerThreads; }
+    public void setImportWorkerThreads(int importWorkerThreads) {
+        if (importWorkerThreads <= 0) {
+            throw new IllegalArgumentException("Import worker threads must be positive");
+        }
+        this.importWorkerThreads = importWorkerThreads;
+    }
+
+    public boolean isWalEnabled() { return walEnabled; }
+    public void setWalEnabled(boolean walEnabled) { this.walEnabled = walEnabled; }
+
+    public long getWalGroupCommitMillis() { return walGroupCommitMillis; }
+    public void setWalGroupCommitMillis(long walGroupCommitMillis) {
+        if (walGroupCommitMillis < 0) {
+            throw new IllegalArgumentException("WAL group commit delay cannot be negative");
+        }
+        this.walGroupCommitMillis = walGroupCommitMillis;
+    }
+
+    public long getWalSegmentSizeBytes() { return walSegmentSizeBytes; }
+    public void setWalSegmentSizeBytes(long walSegmentSizeBytes) {
+        if (walSegmentSizeBytes <= 0) {
+            throw new IllegalArgumentException("WAL segment size must be positive");
+        }
+        this.walSegmentSizeBytes = walSegmentSizeBytes;
+    }
+
+    public long getCheckpointLogBytes() { return checkpointLogBytes; }
+    public void setCheckpointLogBytes(long checkpointLogBytes) {
+        if (checkpointLogBytes <= 0) {
+            throw new IllegalArgumentException("Checkpoint log size must be positive");
+        }
+        this.checkpointLogBytes = checkpointLogBytes;
+    }
+
+    /**
+     * Seconds between time-triggered checkpoints; 0 disables the time trigger
+     */
+    public long getCheckpointIntervalSeconds() { return checkpointIntervalSeconds; }
+    public void setCheckpointIntervalSeconds(long checkpointIntervalSeconds) {
+        if (checkpointIntervalSeconds < 0) {
+            throw new IllegalArgumentException("Checkpoint interval cannot be negative");
+        }
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+    }
+
+    /**
+     * Deltas an incremental backup chain may hold before the next backup writes a new base
+     */
+    public int getBackupMaxDeltas() { return backupMaxDeltas; }
+    public void setBackupMaxDeltas(int backupMaxDeltas) {
+        if (backupMaxDeltas < 0) {
+            throw new IllegalArgumentException("Backup max deltas cannot be negative");
+        }
+        this.backupMaxDeltas = backupMaxDeltas;
+    }
+
+    /**
+     * Threads that compress and decompress backup archive blocks
+     */
+    public int getBackupWorkerThreads() { return backupWorkerThreads; }
+    public void setBackupWorkerThreads(int backupWorkerThreads) {
+        if (backupWorkerThreads <= 0) {
+            throw new IllegalArgumentException("Backup worker threads must be positive");
+        }
+        this.backupWorkerThreads = backupWorkerThreads;
+    }
+
+    /**
+     * Minutes between background backup archives; 0 disables the schedule
+     */
+    public long getBackupIntervalMinutes() { return backupIntervalMinutes; }
+    public void setBackupIntervalMinutes(long backupIntervalMinutes) {
+        if (backupIntervalMinutes < 0) {
+            throw new IllegalArgumentException("Backup interval cannot be negative");
+        }
+        this.backupIntervalMinutes = backupIntervalMinutes;
+    }
+
+    /**
+     * Newest backup archives to keep; 0 keeps them all
+     */
+    public int getBackupArchivesToKeep() { return backupArchivesToKeep; }
+    public void setBackupArchivesToKeep(int backupArchivesToKeep) {
+        if (backupArchivesToKeep < 0) {
+            throw new IllegalArgumentException("Backup archives to keep cannot be negative");
+        }
+        this.backupArchivesToKeep = backupArchivesToKeep;
+    }
+
     public String getApplicationName() { return applicationName; }
     public String getVersion() { return version; }
 
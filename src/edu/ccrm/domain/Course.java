@@ -2,6 +2,8 @@ package edu.ccrm.domain;
 
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Course class with Builder Pattern implementation
@@ -20,6 +22,9 @@ public class Course {
     private final LocalTime startTime;
     private final LocalTime endTime;
     private final Set<String> enrolledStudents;
+    // Seats reserved so far; never exceeds maxCapacity
+    private final AtomicInteger seatsTaken;
+    private volatile CapacityListener capacityListener;
 
     // Private constructor - only accessible through Builder
     private Course(Builder builder) {
@@ -34,7 +39,8 @@ public class Course {
         this.prerequisites = new ArrayList<>(builder.prerequisites);
         this.startTime = builder.startTime;
         this.endTime = builder.endTime;
-        this.enrolledStudents = new HashSet<>();
+        this.enrolledStudents = ConcurrentHashMap.newKeySet();
+        this.seatsTaken = new AtomicInteger();
     }
 
     // Builder Pattern Implementation
@@ -106,9 +112,32 @@ public class Course {
         }
     }
 
+    /**
+     * Notified when a course fills up or a seat frees up in a full course
+     * Called on the thread that changed the seat count, after the change
+     */
+    @FunctionalInterface
+    public interface CapacityListener {
+        void onCapacityChanged(Course course);
+    }
+
+    public void setCapacityListener(CapacityListener capacityListener) {
+        this.capacityListener = capacityListener;
+    }
+
     // Business methods
+
+    /**
+     * Reserve a seat for a student without locking
+     * A seat is claimed by CAS on the seat counter before the student joins the set,
+     * so concurrent callers can never push enrollment past maxCapacity
+     */
     public boolean addStudent(String studentId) {
-        if (enrolledStudents.size() >= maxCapacity) {
+        if (enrolledStudents.contains(studentId)) {
+            return false;
+        }
+
+        if (!reserveSeat()) {
             System.out.println("Course is at full capacity");
             return false;
         }
@@ -117,23 +146,71 @@ public class Course {
             System.out.println("Student " + studentId + " enrolled in " + code);
             return true;
         }
+
+        // Lost a race with the same student enrolling concurrently; give the seat back
+        releaseSeat();
         return false;
     }
 
     public boolean removeStudent(String studentId) {
         if (enrolledStudents.remove(studentId)) {
+            releaseSeat();
             System.out.println("Student " + studentId + " removed from " + code);
             return true;
         }
         return false;
     }
 
+    /**
+     * Restore persisted enrollments without capacity checks or console output
+     * Used when loading a snapshot; the seat counter is set to match the restored set
+     */
+    public void restoreEnrolledStudents(Collection<String> studentIds) {
+        enrolledStudents.clear();
+        enrolledStudents.addAll(studentIds);
+        seatsTaken.set(enrolledStudents.size());
+        notifyCapacityChanged();
+    }
+
+    private boolean reserveSeat() {
+        while (true) {
+            int taken = seatsTaken.get();
+            if (taken >= maxCapacity) {
+                return false;
+            }
+            if (seatsTaken.compareAndSet(taken, taken + 1)) {
+                if (taken + 1 == maxCapacity) {
+                    notifyCapacityChanged();
+                }
+                return true;
+            }
+        }
+    }
+
+    private void releaseSeat() {
+        // Seats move one at a time, so exactly one caller sees the count leave maxCapacity
+        if (seatsTaken.decrementAndGet() == maxCapacity - 1) {
+            notifyCapacityChanged();
+        }
+    }
+
+    private void notifyCapacityChanged() {
+        CapacityListener listener = capacityListener;
+        if (listener != null) {
+            listener.onCapacityChanged(this);
+        }
+    }
+
     public boolean isFull() {
-        return enrolledStudents.size() >= maxCapacity;
+        return seatsTaken.get() >= maxCapacity;
     }
 
     public int getAvailableSpots() {
-        return maxCapacity - enrolledStudents.size();
+        return maxCapacity - seatsTaken.get();
+    }
+
+    public int getEnrolledCount() {
+        return seatsTaken.get();
     }
 
     public void displayInfo() {
@@ -147,7 +224,7 @@ public class Course {
         System.out.println("Department     : " + department);
         System.out.println("Semester       : " + semester.getName());
         System.out.println("Schedule       : " + startTime + " - " + endTime);
-        System.out.println("Capacity       : " + enrolledStudents.size() + "/" + maxCapacity);
+        System.out.println("Capacity       : " + seatsTaken.get() + "/" + maxCapacity);
         System.out.println("Available Spots: " + getAvailableSpots());
         if (!description.isEmpty()) {
             System.out.println("Description    : " + description);
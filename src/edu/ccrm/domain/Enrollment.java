@@ -26,6 +26,20 @@ public class Enrollment {
         this.remarks = "";
     }
 
+    /**
+     * Full constructor for restoring a persisted enrollment
+     */
+    public Enrollment(String enrollmentId, String studentId, String courseCode, LocalDateTime enrollmentDate,
+                      EnrollmentStatus status, Grade assignedGrade, String remarks) {
+        this.enrollmentId = enrollmentId;
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+        this.enrollmentDate = enrollmentDate;
+        this.status = status;
+        this.assignedGrade = assignedGrade;
+        this.remarks = remarks != null ? remarks : "";
+    }
+
     public void assignGrade(Grade grade) {
         this.assignedGrade = grade;
         if (grade != null) {
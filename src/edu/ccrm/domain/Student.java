@@ -113,6 +113,19 @@ public class Student extends Person {
         gpa = totalPoints / courseGrades.size();
     }
 
+    /**
+     * Restore persisted state that has no setter (used when loading a snapshot)
+     * GPA is derived from the restored grades
+     */
+    public void restoreState(LocalDateTime createdDate, LocalDateTime enrollmentDate,
+                             List<String> enrolledCourses, Map<String, Grade> courseGrades) {
+        this.createdDate = createdDate;
+        this.enrollmentDate = enrollmentDate;
+        this.enrolledCourses = new ArrayList<>(enrolledCourses);
+        this.courseGrades = new HashMap<>(courseGrades);
+        recalculateGPA();
+    }
+
     public List<String> getCoursesWithGrades() {
         return courseGrades.entrySet().stream()
                 .map(entry -> entry.getKey() + ": " + entry.getValue().name() + 
@@ -0,0 +1,573 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed, block-checksummed backup archive
+ *
+ * Layout: header [magic][version], then deflate-compressed blocks, then an index with one entry
+ * per block [section][record count][offset][stored length][raw length][CRC32C of stored bytes],
+ * then the trailer [index offset][index length][index CRC32C][magic]
+ *
+ * Each block holds records of one kind, encoded by its own RecordCodec, so any block can be
+ * located through the index, verified and decoded without reading the rest of the archive.
+ * Blocks are compressed on a worker pool and written in order by the caller.
+ */
+public class BackupArchive implements Closeable {
+    public static final int MAGIC = 0x43434241; // "CCBA"
+    public static final int FORMAT_VERSION = 1;
+    public static final String FILE_SUFFIX = ".ccba";
+
+    public static final int SECTION_COURSES = 1;
+    public static final int SECTION_STUDENTS = 2;
+    public static final int SECTION_ENROLLMENTS = 3;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 20;
+    private static final int RECORDS_PER_BLOCK = 2048;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<BlockInfo> blocks;
+
+    private BackupArchive(Path file, FileChannel channel, List<BlockInfo> blocks) {
+        this.file = file;
+        this.channel = channel;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Write an archive from records already encoded one at a time by a RecordCodec
+     * with dictionary encoding turned off, as captured at a cut point by BackupScheduler
+     * The archive is written under a temporary name and moved into place once it is on disk
+     */
+    public static ArchiveSummary writeEncoded(Path file, List<byte[]> courses, List<byte[]> students,
+                                              List<byte[]> enrollments, int workerCount) throws IOException {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+
+        long start = System.nanoTime();
+        List<Callable<EncodedBlock>> tasks = new ArrayList<>();
+        addEncodedBlockTasks(tasks, SECTION_COURSES, courses);
+        addEncodedBlockTasks(tasks, SECTION_STUDENTS, students);
+        addEncodedBlockTasks(tasks, SECTION_ENROLLMENTS, enrollments);
+        return writeBlocks(file, tasks, students.size(), courses.size(), enrollments.size(), workerCount, start);
+    }
+
+    private static ArchiveSummary writeBlocks(Path file, List<Callable<EncodedBlock>> tasks, int studentCount,
+                                              int courseCount, int enrollmentCount, int workerCount,
+                                              long start) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = parent.resolve(file.getFileName() + ".tmp");
+
+        ExecutorService executor = newWorkerPool(workerCount);
+        List<BlockInfo> index = new ArrayList<>(tasks.size());
+        long rawBytes = 0;
+
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION);
+            writeFully(out, header.flip());
+            long position = HEADER_SIZE;
+
+            // Keep a bounded number of blocks in flight so memory stays flat for large datasets
+            Deque<Future<EncodedBlock>> pending = new ArrayDeque<>();
+            int next = 0;
+            while (next < tasks.size() || !pending.isEmpty()) {
+                while (next < tasks.size() && pending.size() < workerCount * 2) {
+                    pending.add(executor.submit(tasks.get(next++)));
+                }
+
+                EncodedBlock block = await(pending.poll());
+                writeFully(out, ByteBuffer.wrap(block.data, 0, block.length));
+                index.add(new BlockInfo(block.section, block.recordCount, position, block.length,
+                                        block.rawLength, block.checksum));
+                position += block.length;
+                rawBytes += block.rawLength;
+            }
+
+            byte[] indexBytes = encodeIndex(index);
+            CRC32C indexChecksum = new CRC32C();
+            indexChecksum.update(indexBytes);
+            writeFully(out, ByteBuffer.wrap(indexBytes));
+
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE)
+                .putLong(position)
+                .putInt(indexBytes.length)
+                .putInt((int) indexChecksum.getValue())
+                .putInt(MAGIC);
+            writeFully(out, trailer.flip());
+            out.force(true);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return new ArchiveSummary(file, index.size(), studentCount, courseCount, enrollmentCount,
+                                  rawBytes, Files.size(file), System.nanoTime() - start);
+    }
+
+    /**
+     * Open an archive and read its index; blocks are read on demand
+     */
+    public static BackupArchive open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Not a CCRM backup archive: " + file);
+            }
+
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a CCRM backup archive: " + file);
+            }
+            int version = header.getInt();
+            if (version > FORMAT_VERSION) {
+                throw new IOException("Unsupported archive version " + version + " in " + file);
+            }
+
+            ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            long indexOffset = trailer.getLong();
+            int indexLength = trailer.getInt();
+            int indexChecksum = trailer.getInt();
+            if (trailer.getInt() != MAGIC || indexOffset < HEADER_SIZE || indexLength < 0 ||
+                indexOffset + indexLength != size - TRAILER_SIZE) {
+                throw new IOException("Backup archive trailer is damaged: " + file);
+            }
+
+            byte[] indexBytes = new byte[indexLength];
+            readFully(channel, indexOffset, indexLength).get(indexBytes);
+            CRC32C checksum = new CRC32C();
+            checksum.update(indexBytes);
+            if ((int) checksum.getValue() != indexChecksum) {
+                throw new IOException("Backup archive index checksum mismatch: " + file);
+            }
+
+            return new BackupArchive(file, channel, decodeIndex(indexBytes, indexOffset));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    public BlockInfo getBlockInfo(int blockIndex) {
+        return blocks.get(blockIndex);
+    }
+
+    /**
+     * Read, verify and decode one block
+     * Safe to call from several threads at once
+     */
+    public Block readBlock(int blockIndex) throws IOException {
+        BlockInfo info = blocks.get(blockIndex);
+        byte[] raw = inflate(info, readStored(info));
+
+        RecordCodec codec = new RecordCodec();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        List<Object> records = new ArrayList<>(info.recordCount);
+        try {
+            for (int i = 0; i < info.recordCount; i++) {
+                switch (info.section) {
+                    case SECTION_COURSES -> records.add(codec.readCourse(in));
+                    case SECTION_STUDENTS -> records.add(codec.readStudent(in));
+                    case SECTION_ENROLLMENTS -> records.add(codec.readEnrollment(in));
+                    default -> throw new IOException("Unknown archive section " + info.section);
+                }
+            }
+            if (in.available() != 0) {
+                throw new IOException("Corrupt block " + blockIndex + ": " + in.available() + " trailing bytes");
+            }
+        } catch (EOFException e) {
+            throw new IOException("Corrupt block " + blockIndex + ": record runs past the block", e);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt block " + blockIndex + ": " + e.getMessage(), e);
+        }
+        return new Block(info.section, records);
+    }
+
+    /**
+     * Check every block's checksum and length, returning the indexes of damaged blocks
+     */
+    public List<Integer> verify() throws IOException {
+        List<Integer> damaged = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            BlockInfo info = blocks.get(i);
+            try {
+                inflate(info, readStored(info));
+            } catch (IOException e) {
+                damaged.add(i);
+            }
+        }
+        return damaged;
+    }
+
+    /**
+     * Decode every block on a worker pool and load the records into the services
+     * Nothing is installed unless every block decodes cleanly
+     */
+    public ArchiveSummary restore(StudentService studentService, CourseService courseService,
+                                  EnrollmentService enrollmentService, int workerCount) throws IOException {
+        long start = System.nanoTime();
+        List<Course> courses = new ArrayList<>();
+        List<Student> students = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        long rawBytes = 0;
+
+        ExecutorService executor = newWorkerPool(workerCount);
+        try {
+            List<Future<Block>> decoded = new ArrayList<>(blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                int blockIndex = i;
+                decoded.add(executor.submit(() -> readBlock(blockIndex)));
+            }
+            for (int i = 0; i < decoded.size(); i++) {
+                Block block = await(decoded.get(i));
+                switch (block.getSection()) {
+                    case SECTION_COURSES -> block.getRecords().forEach(r -> courses.add((Course) r));
+                    case SECTION_STUDENTS -> block.getRecords().forEach(r -> students.add((Student) r));
+                    case SECTION_ENROLLMENTS -> block.getRecords().forEach(r -> enrollments.add((Enrollment) r));
+                    default -> throw new IOException("Unknown archive section " + block.getSection());
+                }
+                rawBytes += blocks.get(i).rawLength;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Same install order as a snapshot load, waiting for durability once
+        enrollments.sort(Comparator.comparing(Enrollment::getEnrollmentDate));
+        MutationBatch.run(() -> {
+            courses.forEach(courseService::restoreCourse);
+            students.forEach(studentService::restoreStudent);
+            enrollments.forEach(enrollmentService::restoreEnrollment);
+        });
+
+        return new ArchiveSummary(file, blocks.size(), students.size(), courses.size(), enrollments.size(),
+                                  rawBytes, channel.size(), System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Newest archive in the directory whose name starts with the prefix, or null if there is none
+     */
+    public static Path findLatestArchive(Path directory, String prefix) throws IOException {
+        List<Path> archives = listArchives(directory, prefix);
+        return archives.isEmpty() ? null : archives.get(archives.size() - 1);
+    }
+
+    /**
+     * Archives in the directory whose names start with the prefix, oldest first;
+     * after the prefix, names carry a sortable timestamp
+     */
+    public static List<Path> listArchives(Path directory, String prefix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(prefix))
+                        .filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static void addEncodedBlockTasks(List<Callable<EncodedBlock>> tasks, int section, List<byte[]> records) {
+        for (int from = 0; from < records.size(); from += RECORDS_PER_BLOCK) {
+            List<byte[]> slice = records.subList(from, Math.min(from + RECORDS_PER_BLOCK, records.size()));
+            tasks.add(() -> {
+                ByteArrayOutputStream raw = new ByteArrayOutputStream(64 * 1024);
+                for (byte[] record : slice) {
+                    raw.write(record);
+                }
+                return compress(section, slice.size(), raw);
+            });
+        }
+    }
+
+    private static EncodedBlock compress(int section, int recordCount, ByteArrayOutputStream raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw.toByteArray());
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(raw.size() / 2, 1024)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer, 0, length);
+            return new EncodedBlock(section, recordCount, buffer, length, raw.size(), (int) checksum.getValue());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] readStored(BlockInfo info) throws IOException {
+        byte[] stored = new byte[info.storedLength];
+        readFully(channel, info.offset, info.storedLength).get(stored);
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(stored);
+        if ((int) checksum.getValue() != info.checksum) {
+            throw new IOException("Block checksum mismatch at offset " + info.offset + " in " + file);
+        }
+        return stored;
+    }
+
+    private byte[] inflate(BlockInfo info, byte[] stored) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[info.rawLength];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, raw.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != raw.length || !inflater.finished()) {
+                throw new IOException("Block at offset " + info.offset + " does not inflate to " +
+                    info.rawLength + " bytes in " + file);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed block at offset " + info.offset + " in " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] encodeIndex(List<BlockInfo> index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(index.size() * 24 + 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        RecordCodec.writeVarInt(out, index.size());
+        for (BlockInfo info : index) {
+            RecordCodec.writeVarInt(out, info.section);
+            RecordCodec.writeVarInt(out, info.recordCount);
+            out.writeLong(info.offset);
+            RecordCodec.writeVarInt(out, info.storedLength);
+            RecordCodec.writeVarInt(out, info.rawLength);
+            out.writeInt(info.checksum);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<BlockInfo> decodeIndex(byte[] indexBytes, long indexOffset) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(indexBytes));
+        try {
+            int count = RecordCodec.readVarInt(in);
+            List<BlockInfo> index = new ArrayList<>(Math.min(count, indexBytes.length));
+            for (int i = 0; i < count; i++) {
+                BlockInfo info = new BlockInfo(RecordCodec.readVarInt(in), RecordCodec.readVarInt(in),
+                    in.readLong(), RecordCodec.readVarInt(in), RecordCodec.readVarInt(in), in.readInt());
+                if (info.offset < HEADER_SIZE || info.storedLength < 0 || info.rawLength < 0 ||
+                    info.offset + info.storedLength > indexOffset) {
+                    throw new IOException("Backup archive index entry " + i + " is out of range");
+                }
+                index.add(info);
+            }
+            return index;
+        } catch (EOFException e) {
+            throw new IOException("Backup archive index is truncated", e);
+        }
+    }
+
+    private static ExecutorService newWorkerPool(int workerCount) {
+        return Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing backup archive");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Positional read, so concurrent block reads do not disturb each other
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Backup archive is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Compressed block produced by a worker
+     */
+    private static class EncodedBlock {
+        final int section;
+        final int recordCount;
+        final byte[] data;
+        final int length;
+        final int rawLength;
+        final int checksum;
+
+        EncodedBlock(int section, int recordCount, byte[] data, int length, int rawLength, int checksum) {
+            this.section = section;
+            this.recordCount = recordCount;
+            this.data = data;
+            this.length = length;
+            this.rawLength = rawLength;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Index entry describing where a block lives and how to check it
+     */
+    public static class BlockInfo {
+        private final int section;
+        private final int recordCount;
+        private final long offset;
+        private final int storedLength;
+        private final int rawLength;
+        private final int checksum;
+
+        BlockInfo(int section, int recordCount, long offset, int storedLength, int rawLength, int checksum) {
+            this.section = section;
+            this.recordCount = recordCount;
+            this.offset = offset;
+            this.storedLength = storedLength;
+            this.rawLength = rawLength;
+            this.checksum = checksum;
+        }
+
+        public int getSection() { return section; }
+        public int getRecordCount() { return recordCount; }
+        public long getOffset() { return offset; }
+        public int getStoredLength() { return storedLength; }
+        public int getRawLength() { return rawLength; }
+    }
+
+    /**
+     * Decoded records of one block; all records share the block's section
+     */
+    public static class Block {
+        private final int section;
+        private final List<Object> records;
+
+        Block(int section, List<Object> records) {
+            this.section = section;
+            this.records = records;
+        }
+
+        public int getSection() { return section; }
+        public List<Object> getRecords() { return Collections.unmodifiableList(records); }
+    }
+
+    /**
+     * Summary of an archive write or restore
+     */
+    public static class ArchiveSummary {
+        private final Path file;
+        private final int blockCount;
+        private final int studentCount;
+        private final int courseCount;
+        private final int enrollmentCount;
+        private final long rawBytes;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        public ArchiveSummary(Path file, int blockCount, int studentCount, int courseCount,
+                              int enrollmentCount, long rawBytes, long bytes, long elapsedNanos) {
+            this.file = file;
+            this.blockCount = blockCount;
+            this.studentCount = studentCount;
+            this.courseCount = courseCount;
+            this.enrollmentCount = enrollmentCount;
+            this.rawBytes = rawBytes;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Path getFile() { return file; }
+        public int getBlockCount() { return blockCount; }
+        public int getStudentCount() { return studentCount; }
+        public int getCourseCount() { return courseCount; }
+        public int getEnrollmentCount() { return enrollmentCount; }
+        public long getRawBytes() { return rawBytes; }
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return TimeUnit.NANOSECONDS.toMillis(elapsedNanos); }
+
+        public double getCompressionRatio() {
+            return bytes > 0 ? (double) rawBytes / bytes : 0.0;
+        }
+
+        public void displaySummary() {
+            System.out.println("\n" + "=".repeat(50));
+            System.out.println("            BACKUP ARCHIVE SUMMARY");
+            System.out.println("=".repeat(50));
+            System.out.println("File        : " + file.toAbsolutePath());
+            System.out.println("Students    : " + studentCount);
+            System.out.println("Courses     : " + courseCount);
+            System.out.println("Enrollments : " + enrollmentCount);
+            System.out.println("Blocks      : " + blockCount);
+            System.out.println("Size        : " + bytes + " bytes (" + rawBytes + " uncompressed, " +
+                String.format("%.1fx", getCompressionRatio()) + ")");
+            System.out.println("Elapsed     : " + getElapsedMillis() + " ms");
+            System.out.println("=".repeat(50));
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.*;
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs backup archives on a background thread from a consistent cut of the services
+ *
+ * A backup opens a capture, copies every record while holding that record's lock, and then
+ * closes the capture. While the capture is open the mutation callbacks stash an encoded copy of
+ * each record they change. Closing the capture is the cut point: the stashed copies replace the
+ * scanned ones, so the archive holds exactly the changes committed before the cut. Writers are
+ * only held up for the instants the capture is opened and closed.
+ *
+ * This is not a copy-on-write view: every backup holds a full encoded copy of the dataset on the
+ * heap until the archive is written, plus the stash. Scanned records cannot be streamed straight
+ * into blocks, because a record changed or removed after the scan reached it has to be replaced
+ * or dropped at the cut, and the archive format has no way to override a record already written.
+ *
+ * Scheduled and requested backups share one thread, so two backups never overlap.
+ */
+public class BackupScheduler implements MutationListener, Closeable {
+    // Scheduled archives are named apart from manual ones, so pruning never touches those
+    public static final String FILE_PREFIX = "scheduled_backup_";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+    // Stash marker for a record removed after the capture opened
+    private static final byte[] REMOVED = new byte[0];
+
+    private final Path directory;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+    private final long intervalMillis;
+    private final int workerCount;
+    private final int archivesToKeep;
+    private final ThreadLocal<RecordEncoder> encoders = ThreadLocal.withInitial(RecordEncoder::new);
+    private final BackupMetrics metrics = new BackupMetrics();
+
+    // Callbacks stash under the read lock; opening and closing a capture take the write lock
+    private final ReadWriteLock captureGate = new ReentrantReadWriteLock();
+    private volatile Capture capture;
+
+    private ScheduledExecutorService scheduler;
+
+    public BackupScheduler(Path directory, StudentService studentService, CourseService courseService,
+                           EnrollmentService enrollmentService, long intervalMillis, int workerCount,
+                           int archivesToKeep) {
+        this.directory = directory;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+        this.intervalMillis = intervalMillis;
+        this.workerCount = workerCount;
+        this.archivesToKeep = archivesToKeep;
+    }
+
+    /**
+     * Listen for changes and start the background thread; periodic backups run if an interval is set
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        studentService.addMutationListener(this);
+        courseService.addMutationListener(this);
+        enrollmentService.addMutationListener(this);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backup-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::runScheduledBackup, intervalMillis, intervalMillis,
+                                             TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queue a backup on the background thread and return without waiting for it
+     */
+    public synchronized Future<BackupArchive.ArchiveSummary> requestBackup() {
+        if (scheduler == null) {
+            throw new IllegalStateException("Backup scheduler is not running");
+        }
+        return scheduler.submit(this::backupNow);
+    }
+
+    /**
+     * Take a backup on the calling thread
+     */
+    public synchronized BackupArchive.ArchiveSummary backupNow() throws IOException {
+        long start = System.nanoTime();
+        try {
+            Path file = directory.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIMESTAMP) +
+                                          BackupArchive.FILE_SUFFIX);
+            CutResult cut = captureCut();
+            BackupArchive.ArchiveSummary summary = BackupArchive.writeEncoded(file,
+                new ArrayList<>(cut.courses.values()), new ArrayList<>(cut.students.values()),
+                new ArrayList<>(cut.enrollments.values()), workerCount);
+            pruneOldArchives();
+            metrics.recordSuccess(summary, cut.cutTime, cut.gateNanos, System.nanoTime() - start);
+            return summary;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordFailure(e);
+            throw e;
+        }
+    }
+
+    public BackupMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void onStudentChanged(Student student) {
+        stash(c -> c.students.put(student.getId(), encoders.get().encode(student)));
+    }
+
+    @Override
+    public void onStudentRemoved(String studentId) {
+        stash(c -> c.students.put(studentId, REMOVED));
+    }
+
+    @Override
+    public void onCourseChanged(Course course) {
+        stash(c -> c.courses.put(course.getCode(), encoders.get().encode(course)));
+    }
+
+    @Override
+    public void onCourseRemoved(String courseCode) {
+        stash(c -> c.courses.put(courseCode, REMOVED));
+    }
+
+    @Override
+    public void onEnrollmentChanged(Enrollment enrollment) {
+        stash(c -> c.enrollments.put(enrollment.getEnrollmentId(), encoders.get().encode(enrollment)));
+    }
+
+    /**
+     * Called under the record lock; a change that misses an open capture happened before the
+     * scan reached its record, so the scan sees it
+     */
+    private void stash(Consumer<Capture> update) {
+        if (capture == null) {
+            return;
+        }
+        captureGate.readLock().lock();
+        try {
+            Capture current = capture;
+            if (current != null) {
+                update.accept(current);
+            }
+        } finally {
+            captureGate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scan the services under an open capture and merge in the changes stashed up to the cut
+     */
+    private CutResult captureCut() {
+        setCapture(new Capture());
+
+        CutResult cut = new CutResult();
+        RecordEncoder encoder = encoders.get();
+        try {
+            courseService.forEachCourseLocked(course -> cut.courses.put(course.getCode(), encoder.encode(course)));
+            studentService.forEachStudentLocked(student -> cut.students.put(student.getId(), encoder.encode(student)));
+            enrollmentService.forEachEnrollmentLocked(
+                enrollment -> cut.enrollments.put(enrollment.getEnrollmentId(), encoder.encode(enrollment)));
+        } catch (RuntimeException e) {
+            setCapture(null);
+            throw e;
+        }
+
+        long gateStart = System.nanoTime();
+        Capture taken = setCapture(null);
+        cut.gateNanos = System.nanoTime() - gateStart;
+        cut.cutTime = LocalDateTime.now();
+
+        applyStash(cut.courses, taken.courses);
+        applyStash(cut.students, taken.students);
+        applyStash(cut.enrollments, taken.enrollments);
+        return cut;
+    }
+
+    private Capture setCapture(Capture next) {
+        captureGate.writeLock().lock();
+        try {
+            Capture previous = capture;
+            capture = next;
+            return previous;
+        } finally {
+            captureGate.writeLock().unlock();
+        }
+    }
+
+    private static void applyStash(Map<String, byte[]> scanned, Map<String, byte[]> stashed) {
+        stashed.forEach((key, record) -> {
+            if (record == REMOVED) {
+                scanned.remove(key);
+            } else {
+                scanned.put(key, record);
+            }
+        });
+    }
+
+    /**
+     * Keep only the newest scheduled archives
+     */
+    private void pruneOldArchives() throws IOException {
+        if (archivesToKeep <= 0) {
+            return;
+        }
+        List<Path> archives = BackupArchive.listArchives(directory, FILE_PREFIX);
+        for (int i = 0; i < archives.size() - archivesToKeep; i++) {
+            Files.deleteIfExists(archives.get(i));
+        }
+    }
+
+    private void runScheduledBackup() {
+        try {
+            backupNow();
+        } catch (Exception e) {
+            // Keep the schedule alive; the failure is counted in the metrics
+            System.err.println("⚠️  Scheduled backup failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the background thread; a backup already in progress completes first
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = scheduler;
+            scheduler = null;
+        }
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encoded copies of records changed while a capture is open, keyed by record ID
+     */
+    private static class Capture {
+        final Map<String, byte[]> courses = new ConcurrentHashMap<>();
+        final Map<String, byte[]> students = new ConcurrentHashMap<>();
+        final Map<String, byte[]> enrollments = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records as of the cut point, in encoded form: one full copy of the dataset
+     */
+    private static class CutResult {
+        final Map<String, byte[]> courses = new HashMap<>();
+        final Map<String, byte[]> students = new HashMap<>();
+        final Map<String, byte[]> enrollments = new HashMap<>();
+        LocalDateTime cutTime;
+        long gateNanos;
+    }
+
+    /**
+     * Per-thread encoder; records are self-contained so they can be concatenated into any block
+     */
+    private static class RecordEncoder {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final RecordCodec codec = new RecordCodec(false);
+
+        byte[] encode(Student student) {
+            try {
+                bytes.reset();
+                codec.writeStudent(out, student);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] encode(Course course) {
+            try {
+                bytes.reset();
+                codec.writeCourse(out, course);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] encode(Enrollment enrollment) {
+            try {
+                bytes.reset();
+                codec.writeEnrollment(out, enrollment);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Running totals for background backups
+     */
+    public static class BackupMetrics {
+        private long backupCount;
+        private long failureCount;
+        private long totalBytes;
+        private long lastBytes;
+        private long lastDurationNanos;
+        private long lastGateNanos;
+        private LocalDateTime lastCutTime;
+        private Path lastFile;
+        private String lastError;
+
+        synchronized void recordSuccess(BackupArchive.ArchiveSummary summary, LocalDateTime cutTime,
+                                        long gateNanos, long durationNanos) {
+            backupCount++;
+            totalBytes += summary.getBytes();
+            lastBytes = summary.getBytes();
+            lastDurationNanos = durationNanos;
+            lastGateNanos = gateNanos;
+            lastCutTime = cutTime;
+            lastFile = summary.getFile();
+            lastError = null;
+        }
+
+        synchronized void recordFailure(Exception e) {
+            failureCount++;
+            lastError = e.getMessage();
+        }
+
+        public synchronized long getBackupCount() { return backupCount; }
+        public synchronized long getFailureCount() { return failureCount; }
+        public synchronized long getTotalBytes() { return totalBytes; }
+        public synchronized long getLastBytes() { return lastBytes; }
+        public synchronized long getLastDurationMillis() { return TimeUnit.NANOSECONDS.toMillis(lastDurationNanos); }
+        public synchronized long getLastGateMicros() { return TimeUnit.NANOSECONDS.toMicros(lastGateNanos); }
+        public synchronized LocalDateTime getLastCutTime() { return lastCutTime; }
+
+        public synchronized void displayMetrics() {
+            System.out.println("\n" + "=".repeat(50));
+            System.out.println("            BACKGROUND BACKUPS");
+            System.out.println("=".repeat(50));
+            System.out.println("Completed     : " + backupCount);
+            System.out.println("Failed        : " + failureCount);
+            System.out.println("Bytes Written : " + totalBytes);
+            if (lastFile != null) {
+                System.out.println("Last File     : " + lastFile.toAbsolutePath());
+                System.out.println("Last Cut      : " + lastCutTime);
+                System.out.println("Last Size     : " + lastBytes + " bytes");
+                System.out.println("Last Duration : " + getLastDurationMillis() + " ms");
+                System.out.println("Last Gate     : " + getLastGateMicros() + " µs");
+            }
+            if (lastError != null) {
+                System.out.println("Last Error    : " + lastError);
+            }
+            System.out.println("=".repeat(50));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.service.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Background checkpointer that bounds write-ahead log replay time
+ *
+ * A checkpoint notes the last assigned LSN, writes a snapshot while writers keep running,
+ * and then deletes the log segments that LSN covers. The snapshot is fuzzy: it may already
+ * contain some later changes, which is safe because replaying the log tail re-applies
+ * full-record upserts in order.
+ *
+ * A checkpoint is taken when the log has grown by a configured number of bytes, or when a
+ * configured interval has passed with changes since the previous one.
+ */
+public class Checkpointer implements Closeable {
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".snap";
+    private static final long POLL_MILLIS = 1000;
+
+    private final Path directory;
+    private final WriteAheadLog writeAheadLog;
+    private final SnapshotService snapshotService;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+    private final long logBytesTrigger;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private long lastCheckpointLsn;
+    private long lastCheckpointBytes;
+    private long lastCheckpointTime;
+    private int checkpointCount;
+
+    public Checkpointer(Path directory, WriteAheadLog writeAheadLog, SnapshotService snapshotService,
+                        StudentService studentService, CourseService courseService,
+                        EnrollmentService enrollmentService, long logBytesTrigger, long intervalMillis,
+                        long recoveredLsn) {
+        this.directory = directory;
+        this.writeAheadLog = writeAheadLog;
+        this.snapshotService = snapshotService;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+        this.logBytesTrigger = logBytesTrigger;
+        this.intervalMillis = intervalMillis;
+        this.lastCheckpointLsn = recoveredLsn;
+        this.lastCheckpointTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Start checking the triggers in the background
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointIfDue, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take a checkpoint now and release the log segments it covers
+     */
+    public synchronized SnapshotService.SnapshotSummary checkpoint() throws IOException {
+        // Start a fresh segment so the current one can be released once it is covered
+        writeAheadLog.requestRoll();
+        long bytes = writeAheadLog.getBytesAppended();
+        long lsn = writeAheadLog.getLastLsn();
+        // A checkpoint must never get ahead of the log on disk, or recovery would find a gap
+        writeAheadLog.awaitDurable(lsn);
+
+        Files.createDirectories(directory);
+        SnapshotService.SnapshotSummary summary = snapshotService.writeSnapshot(checkpointPath(lsn), lsn,
+            studentService, courseService, enrollmentService);
+        syncDirectory();
+
+        // The new checkpoint is durable, so older checkpoints and covered segments are no longer needed
+        for (Path old : listCheckpoints(directory)) {
+            if (checkpointLsn(old) < lsn) {
+                Files.deleteIfExists(old);
+            }
+        }
+        int removedSegments = writeAheadLog.truncatePrefix(lsn);
+
+        lastCheckpointLsn = lsn;
+        lastCheckpointBytes = bytes;
+        lastCheckpointTime = System.currentTimeMillis();
+        checkpointCount++;
+
+        if (AppConfig.getInstance().isDebugMode()) {
+            System.out.println("Debug: Checkpoint at LSN " + lsn + " (" + summary.getBytes() + " bytes, " +
+                summary.getElapsedMillis() + " ms), removed " + removedSegments + " log segment(s)");
+        }
+        return summary;
+    }
+
+    public synchronized long getLastCheckpointLsn() {
+        return lastCheckpointLsn;
+    }
+
+    public synchronized int getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    /**
+     * Stop the background trigger; a checkpoint already in progress completes first
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = scheduler;
+            scheduler = null;
+        }
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkpointIfDue() {
+        try {
+            if (isDue()) {
+                checkpoint();
+            }
+        } catch (Exception e) {
+            // Keep the schedule alive; the next poll retries
+            System.err.println("⚠️  Checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    private synchronized boolean isDue() {
+        if (writeAheadLog.getLastLsn() <= lastCheckpointLsn) {
+            return false;
+        }
+        if (writeAheadLog.getBytesAppended() - lastCheckpointBytes >= logBytesTrigger) {
+            return true;
+        }
+        return intervalMillis > 0 && System.currentTimeMillis() - lastCheckpointTime >= intervalMillis;
+    }
+
+    private Path checkpointPath(long lsn) {
+        return directory.resolve(String.format("%s%020d%s", CHECKPOINT_PREFIX, lsn, CHECKPOINT_SUFFIX));
+    }
+
+    /**
+     * Newest checkpoint in the directory, or null if there is none
+     */
+    public static Path findLatestCheckpoint(Path directory) throws IOException {
+        List<Path> checkpoints = listCheckpoints(directory);
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    /**
+     * Checkpoints in LSN order
+     */
+    private static List<Path> listCheckpoints(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> checkpointLsn(p) >= 0)
+                        .sorted(Comparator.comparingLong(Checkpointer::checkpointLsn))
+                        .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * LSN encoded in a checkpoint file name, or -1 if the file is not a checkpoint
+     */
+    private static long checkpointLsn(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(CHECKPOINT_PREFIX) || !name.endsWith(CHECKPOINT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(CHECKPOINT_PREFIX.length(),
+                                                 name.length() - CHECKPOINT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Make the renamed checkpoint durable before the log it replaces is deleted (best effort)
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Directory sync is unavailable on this platform
+        }
+    }
+}
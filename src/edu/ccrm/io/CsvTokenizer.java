@@ -0,0 +1,257 @@
+package edu.ccrm.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable byte-level CSV tokenizer
+ * Scans one UTF-8 line in a ByteBuffer and records field offsets into reused arrays;
+ * Strings are only created for the fields a caller actually asks for
+ *
+ * Quoting follows the original String parser: a quote toggles quoted mode anywhere in a field,
+ * and a doubled quote inside quotes is a literal quote
+ */
+public class CsvTokenizer {
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+
+    private ByteBuffer source;
+    private int lineStart;
+    private int lineEnd;
+
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private boolean[] fieldQuoted = new boolean[16];
+    private int fieldCount;
+
+    // Scratch space for unquoting and for decoding from non-array buffers
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Tokenize the line occupying [start, end) of the buffer, excluding the line terminator
+     * A trailing carriage return is ignored; the buffer's position and limit are not changed
+     * Returns the number of fields
+     */
+    public int tokenize(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        this.source = buffer;
+        this.lineStart = start;
+        this.lineEnd = end;
+        this.fieldCount = 0;
+
+        boolean inQuotes = false;
+        boolean quoted = false;
+        int fieldStart = start;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == QUOTE) {
+                quoted = true;
+                if (inQuotes && i + 1 < end && buffer.get(i + 1) == QUOTE) {
+                    i++; // Escaped quote
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (b == COMMA && !inQuotes) {
+                addField(fieldStart, i, quoted);
+                fieldStart = i + 1;
+                quoted = false;
+            }
+        }
+
+        // Add the last field
+        addField(fieldStart, end, quoted);
+        return fieldCount;
+    }
+
+    /**
+     * Tokenize a whole String line (convenience for callers that already hold text)
+     */
+    public int tokenize(String line) {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        return tokenize(buffer, 0, buffer.limit());
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * True if the line holds only whitespace
+     */
+    public boolean isBlankLine() {
+        return trimStart(lineStart, lineEnd) == lineEnd;
+    }
+
+    /**
+     * True if the field is empty after unquoting and trimming
+     */
+    public boolean isBlank(int field) {
+        checkField(field);
+        if (!fieldQuoted[field]) {
+            int start = trimStart(fieldStarts[field], fieldEnds[field]);
+            return start == trimEnd(start, fieldEnds[field]);
+        }
+
+        int length = unquote(field);
+        for (int i = 0; i < length; i++) {
+            if ((scratch[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Field value, unquoted and trimmed
+     */
+    public String getString(int field) {
+        checkField(field);
+        if (!fieldQuoted[field]) {
+            int start = trimStart(fieldStarts[field], fieldEnds[field]);
+            int end = trimEnd(start, fieldEnds[field]);
+            return decode(start, end - start);
+        }
+
+        int length = unquote(field);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Field parsed as a decimal int without creating a String
+     * Throws NumberFormatException for anything that Integer.parseInt would reject
+     */
+    public int getInt(int field) {
+        checkField(field);
+        if (fieldQuoted[field]) {
+            return Integer.parseInt(getString(field));
+        }
+
+        int start = trimStart(fieldStarts[field], fieldEnds[field]);
+        int end = trimEnd(start, fieldEnds[field]);
+        if (start == end) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+
+        boolean negative = false;
+        int i = start;
+        byte first = source.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+        }
+
+        // Accumulate negatively so Integer.MIN_VALUE parses without overflow
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = source.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+            value = value * 10 - digit;
+            if (value < Integer.MIN_VALUE) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+        }
+
+        if (!negative) {
+            if (value == Integer.MIN_VALUE) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+            value = -value;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Whole line as a trimmed String, for error reporting
+     */
+    public String getLine() {
+        int start = trimStart(lineStart, lineEnd);
+        int end = trimEnd(start, lineEnd);
+        return decode(start, end - start);
+    }
+
+    private void addField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStarts.length) {
+            int capacity = fieldCount * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, capacity);
+            fieldEnds = Arrays.copyOf(fieldEnds, capacity);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, capacity);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    /**
+     * Copy a quoted field into scratch with quotes removed, returning its length
+     */
+    private int unquote(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        ensureScratch(end - start);
+
+        int length = 0;
+        boolean inQuotes = false;
+        for (int i = start; i < end; i++) {
+            byte b = source.get(i);
+            if (b == QUOTE) {
+                if (inQuotes && i + 1 < end && source.get(i + 1) == QUOTE) {
+                    scratch[length++] = QUOTE;
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else {
+                scratch[length++] = b;
+            }
+        }
+        return length;
+    }
+
+    private String decode(int start, int length) {
+        if (length == 0) {
+            return "";
+        }
+        if (source.hasArray()) {
+            return new String(source.array(), source.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+
+        ensureScratch(length);
+        source.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && (source.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && (source.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " of " + fieldCount);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.io.BufferedWriter;
 import java.io.IOException;
 
 /**
@@ -33,40 +34,38 @@ public class DataExportService {
         // Create directories if they don't exist
         Files.createDirectories(filePath.getParent());
 
-        List<String> lines = new ArrayList<>();
-
-        // CSV Header
-        lines.add("StudentID,RegNo,FullName,Email,Phone,Department,Semester,Status,GPA,EnrollmentDate,EnrolledCourses");
-
-        // CSV Data
-        for (Student student : students) {
-            StringBuilder coursesList = new StringBuilder();
-            List<String> courses = student.getEnrolledCourses();
-            if (!courses.isEmpty()) {
-                coursesList.append("\"").append(String.join(";", courses)).append("\"");
-            } else {
-                coursesList.append("\"\"");
+        // Stream rows straight to the file so memory use does not grow with the roster
+        try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+            // CSV Header
+            writeLine(writer, "StudentID,RegNo,FullName,Email,Phone,Department,Semester,Status,GPA,EnrollmentDate,EnrolledCourses");
+
+            // CSV Data
+            for (Student student : students) {
+                StringBuilder coursesList = new StringBuilder();
+                List<String> courses = student.getEnrolledCourses();
+                if (!courses.isEmpty()) {
+                    coursesList.append("\"").append(String.join(";", courses)).append("\"");
+                } else {
+                    coursesList.append("\"\"");
+                }
+
+                String line = String.join(",",
+                    escapeCSV(student.getId()),
+                    escapeCSV(student.getRegNo()),
+                    escapeCSV(student.getFullName()),
+                    escapeCSV(student.getEmail()),
+                    escapeCSV(student.getPhone() != null ? student.getPhone() : ""),
+                    escapeCSV(student.getDepartment() != null ? student.getDepartment() : ""),
+                    String.valueOf(student.getSemester()),
+                    escapeCSV(student.getStatus().name()),
+                    String.valueOf(student.getGpa()),
+                    escapeCSV(student.getEnrollmentDate().format(dateFormatter)),
+                    coursesList.toString()
+                );
+                writeLine(writer, line);
             }
-
-            String line = String.join(",",
-                escapeCSV(student.getId()),
-                escapeCSV(student.getRegNo()),
-                escapeCSV(student.getFullName()),
-                escapeCSV(student.getEmail()),
-                escapeCSV(student.getPhone() != null ? student.getPhone() : ""),
-                escapeCSV(student.getDepartment() != null ? student.getDepartment() : ""),
-                String.valueOf(student.getSemester()),
-                escapeCSV(student.getStatus().name()),
-                String.valueOf(student.getGpa()),
-                escapeCSV(student.getEnrollmentDate().format(dateFormatter)),
-                coursesList.toString()
-            );
-            lines.add(line);
         }
 
-        // Write to file using NIO.2
-        Files.write(filePath, lines, StandardCharsets.UTF_8);
-
         System.out.println("✅ Students exported to: " + filePath.toAbsolutePath());
         System.out.println("📊 Total students exported: " + students.size());
     }
@@ -79,36 +78,34 @@ public class DataExportService {
 
         Files.createDirectories(filePath.getParent());
 
-        List<String> lines = new ArrayList<>();
-
-        // CSV Header
-        lines.add("CourseCode,Title,Credits,Instructor,Department,Semester,Description,MaxCapacity,EnrolledStudents,Prerequisites");
-
-        // CSV Data
-        for (Course course : courses) {
-            String prerequisites = course.getPrerequisites().isEmpty() ? 
-                "\"\"" : "\"" + String.join(";", course.getPrerequisites()) + "\"";
-
-            String enrolledStudents = course.getEnrolledStudents().isEmpty() ?
-                "\"\"" : "\"" + String.join(";", course.getEnrolledStudents()) + "\"";
-
-            String line = String.join(",",
-                escapeCSV(course.getCode()),
-                escapeCSV(course.getTitle()),
-                String.valueOf(course.getCredits()),
-                escapeCSV(course.getInstructor()),
-                escapeCSV(course.getDepartment()),
-                escapeCSV(course.getSemester().name()),
-                escapeCSV(course.getDescription()),
-                String.valueOf(course.getMaxCapacity()),
-                enrolledStudents,
-                prerequisites
-            );
-            lines.add(line);
+        try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+            // CSV Header
+            writeLine(writer, "CourseCode,Title,Credits,Instructor,Department,Semester,Description,MaxCapacity,EnrolledStudents,Prerequisites");
+
+            // CSV Data
+            for (Course course : courses) {
+                String prerequisites = course.getPrerequisites().isEmpty() ? 
+                    "\"\"" : "\"" + String.join(";", course.getPrerequisites()) + "\"";
+
+                String enrolledStudents = course.getEnrolledStudents().isEmpty() ?
+                    "\"\"" : "\"" + String.join(";", course.getEnrolledStudents()) + "\"";
+
+                String line = String.join(",",
+                    escapeCSV(course.getCode()),
+                    escapeCSV(course.getTitle()),
+                    String.valueOf(course.getCredits()),
+                    escapeCSV(course.getInstructor()),
+                    escapeCSV(course.getDepartment()),
+                    escapeCSV(course.getSemester().name()),
+                    escapeCSV(course.getDescription()),
+                    String.valueOf(course.getMaxCapacity()),
+                    enrolledStudents,
+                    prerequisites
+                );
+                writeLine(writer, line);
+            }
         }
 
-        Files.write(filePath, lines, StandardCharsets.UTF_8);
-
         System.out.println("✅ Courses exported to: " + filePath.toAbsolutePath());
         System.out.println("📊 Total courses exported: " + courses.size());
     }
@@ -121,42 +118,37 @@ public class DataExportService {
 
         Files.createDirectories(filePath.getParent());
 
-        List<String> jsonLines = new ArrayList<>();
-        jsonLines.add("{");
-        jsonLines.add("  \"exportInfo\": {");
-        jsonLines.add("    \"timestamp\": \"" + LocalDateTime.now().format(dateFormatter) + "\",");
-        jsonLines.add("    \"totalStudents\": " + students.size() + ",");
-        jsonLines.add("    \"exportedBy\": \"CCRM System\"");
-        jsonLines.add("  },");
-        jsonLines.add("  \"students\": [");
-
-        for (int i = 0; i < students.size(); i++) {
-            Student student = students.get(i);
-            jsonLines.add("    {");
-            jsonLines.add("      \"id\": \"" + student.getId() + "\",");
-            jsonLines.add("      \"regNo\": \"" + student.getRegNo() + "\",");
-            jsonLines.add("      \"fullName\": \"" + escapeJSON(student.getFullName()) + "\",");
-            jsonLines.add("      \"email\": \"" + student.getEmail() + "\",");
-            jsonLines.add("      \"department\": \"" + (student.getDepartment() != null ? student.getDepartment() : "") + "\",");
-            jsonLines.add("      \"semester\": " + student.getSemester() + ",");
-            jsonLines.add("      \"status\": \"" + student.getStatus().name() + "\",");
-            jsonLines.add("      \"gpa\": " + student.getGpa() + ",");
-            jsonLines.add("      \"enrolledCourses\": [" + 
-                student.getEnrolledCourses().stream()
-                    .map(course -> "\"" + course + "\"")
-                    .collect(Collectors.joining(", ")) + "]");
-
-            if (i < students.size() - 1) {
-                jsonLines.add("    },");
-            } else {
-                jsonLines.add("    }");
+        try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+            writeLine(writer, "{");
+            writeLine(writer, "  \"exportInfo\": {");
+            writeLine(writer, "    \"timestamp\": \"" + LocalDateTime.now().format(dateFormatter) + "\",");
+            writeLine(writer, "    \"totalStudents\": " + students.size() + ",");
+            writeLine(writer, "    \"exportedBy\": \"CCRM System\"");
+            writeLine(writer, "  },");
+            writeLine(writer, "  \"students\": [");
+
+            int remaining = students.size();
+            for (Student student : students) {
+                writeLine(writer, "    {");
+                writeLine(writer, "      \"id\": \"" + student.getId() + "\",");
+                writeLine(writer, "      \"regNo\": \"" + student.getRegNo() + "\",");
+                writeLine(writer, "      \"fullName\": \"" + escapeJSON(student.getFullName()) + "\",");
+                writeLine(writer, "      \"email\": \"" + student.getEmail() + "\",");
+                writeLine(writer, "      \"department\": \"" + (student.getDepartment() != null ? student.getDepartment() : "") + "\",");
+                writeLine(writer, "      \"semester\": " + student.getSemester() + ",");
+                writeLine(writer, "      \"status\": \"" + student.getStatus().name() + "\",");
+                writeLine(writer, "      \"gpa\": " + student.getGpa() + ",");
+                writeLine(writer, "      \"enrolledCourses\": [" + 
+                    student.getEnrolledCourses().stream()
+                        .map(course -> "\"" + course + "\"")
+                        .collect(Collectors.joining(", ")) + "]");
+
+                writeLine(writer, --remaining > 0 ? "    }," : "    }");
             }
-        }
-
-        jsonLines.add("  ]");
-        jsonLines.add("}");
 
-        Files.write(filePath, jsonLines, StandardCharsets.UTF_8);
+            writeLine(writer, "  ]");
+            writeLine(writer, "}");
+        }
 
         System.out.println("✅ Students exported to JSON: " + filePath.toAbsolutePath());
     }
@@ -171,72 +163,74 @@ public class DataExportService {
 
         Files.createDirectories(filePath.getParent());
 
-        List<String> reportLines = new ArrayList<>();
-
-        // Header
-        reportLines.add("=".repeat(80));
-        reportLines.add("              CAMPUS COURSE & RECORDS MANAGER");
-        reportLines.add("                    COMPREHENSIVE REPORT");
-        reportLines.add("=".repeat(80));
-        reportLines.add("Generated on: " + LocalDateTime.now().format(dateFormatter));
-        reportLines.add("System Version: " + config.getApplicationName() + " v" + config.getVersion());
-        reportLines.add("");
-
-        // Student Statistics
-        StudentService.StudentStatistics studentStats = studentService.getStudentStatistics();
-        reportLines.add("STUDENT SUMMARY:");
-        reportLines.add("-".repeat(40));
-        reportLines.add("Total Students: " + studentStats.getTotalStudents());
-        reportLines.add("Average GPA: " + String.format("%.2f", studentStats.getAverageGPA()));
-        reportLines.add("Minimum GPA: " + String.format("%.2f", studentStats.getMinGPA()));
-        reportLines.add("Maximum GPA: " + String.format("%.2f", studentStats.getMaxGPA()));
-        reportLines.add("");
-
-        reportLines.add("Status Distribution:");
-        studentStats.getStatusDistribution().forEach((status, count) -> 
-            reportLines.add("  " + status.getDescription() + ": " + count));
-        reportLines.add("");
-
-        if (!studentStats.getDepartmentDistribution().isEmpty()) {
-            reportLines.add("Department Distribution:");
-            studentStats.getDepartmentDistribution().forEach((dept, count) -> 
-                reportLines.add("  " + dept + ": " + count));
-            reportLines.add("");
-        }
+        try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+            // Header
+            writeLine(writer, "=".repeat(80));
+            writeLine(writer, "              CAMPUS COURSE & RECORDS MANAGER");
+            writeLine(writer, "                    COMPREHENSIVE REPORT");
+            writeLine(writer, "=".repeat(80));
+            writeLine(writer, "Generated on: " + LocalDateTime.now().format(dateFormatter));
+            writeLine(writer, "System Version: " + config.getApplicationName() + " v" + config.getVersion());
+            writeLine(writer, "");
+
+            // Student Statistics
+            StudentService.StudentStatistics studentStats = studentService.getStudentStatistics();
+            writeLine(writer, "STUDENT SUMMARY:");
+            writeLine(writer, "-".repeat(40));
+            writeLine(writer, "Total Students: " + studentStats.getTotalStudents());
+            writeLine(writer, "Average GPA: " + String.format("%.2f", studentStats.getAverageGPA()));
+            writeLine(writer, "Minimum GPA: " + String.format("%.2f", studentStats.getMinGPA()));
+            writeLine(writer, "Maximum GPA: " + String.format("%.2f", studentStats.getMaxGPA()));
+            writeLine(writer, "");
+
+            writeLine(writer, "Status Distribution:");
+            for (Map.Entry<StudentStatus, Long> entry : studentStats.getStatusDistribution().entrySet()) {
+                writeLine(writer, "  " + entry.getKey().getDescription() + ": " + entry.getValue());
+            }
+            writeLine(writer, "");
+
+            if (!studentStats.getDepartmentDistribution().isEmpty()) {
+                writeLine(writer, "Department Distribution:");
+                for (Map.Entry<String, Long> entry : studentStats.getDepartmentDistribution().entrySet()) {
+                    writeLine(writer, "  " + entry.getKey() + ": " + entry.getValue());
+                }
+                writeLine(writer, "");
+            }
 
-        // Course Statistics
-        CourseService.CourseStatistics courseStats = courseService.getCourseStatistics();
-        reportLines.add("COURSE SUMMARY:");
-        reportLines.add("-".repeat(40));
-        reportLines.add("Total Courses: " + courseStats.getTotalCourses());
-        reportLines.add("Average Credits: " + String.format("%.1f", courseStats.getAverageCredits()));
-        reportLines.add("");
-
-        reportLines.add("Department Distribution:");
-        courseStats.getDepartmentDistribution().forEach((dept, count) -> 
-            reportLines.add("  " + dept + ": " + count));
-        reportLines.add("");
-
-        reportLines.add("Semester Distribution:");
-        courseStats.getSemesterDistribution().forEach((semester, count) -> 
-            reportLines.add("  " + semester.getName() + ": " + count));
-        reportLines.add("");
-
-        // System Information
-        reportLines.add("SYSTEM CONFIGURATION:");
-        reportLines.add("-".repeat(40));
-        reportLines.add("Data Folder: " + config.getDataFolderPath());
-        reportLines.add("Backup Folder: " + config.getBackupFolderPath());
-        reportLines.add("Debug Mode: " + (config.isDebugMode() ? "ON" : "OFF"));
-        reportLines.add("Max Students per Course: " + config.getMaxStudentsPerCourse());
-        reportLines.add("Max Courses per Student: " + config.getMaxCoursesPerStudent());
-        reportLines.add("");
-
-        reportLines.add("=".repeat(80));
-        reportLines.add("                    END OF REPORT");
-        reportLines.add("=".repeat(80));
-
-        Files.write(filePath, reportLines, StandardCharsets.UTF_8);
+            // Course Statistics
+            CourseService.CourseStatistics courseStats = courseService.getCourseStatistics();
+            writeLine(writer, "COURSE SUMMARY:");
+            writeLine(writer, "-".repeat(40));
+            writeLine(writer, "Total Courses: " + courseStats.getTotalCourses());
+            writeLine(writer, "Average Credits: " + String.format("%.1f", courseStats.getAverageCredits()));
+            writeLine(writer, "");
+
+            writeLine(writer, "Department Distribution:");
+            for (Map.Entry<String, Long> entry : courseStats.getDepartmentDistribution().entrySet()) {
+                writeLine(writer, "  " + entry.getKey() + ": " + entry.getValue());
+            }
+            writeLine(writer, "");
+
+            writeLine(writer, "Semester Distribution:");
+            for (Map.Entry<Semester, Long> entry : courseStats.getSemesterDistribution().entrySet()) {
+                writeLine(writer, "  " + entry.getKey().getName() + ": " + entry.getValue());
+            }
+            writeLine(writer, "");
+
+            // System Information
+            writeLine(writer, "SYSTEM CONFIGURATION:");
+            writeLine(writer, "-".repeat(40));
+            writeLine(writer, "Data Folder: " + config.getDataFolderPath());
+            writeLine(writer, "Backup Folder: " + config.getBackupFolderPath());
+            writeLine(writer, "Debug Mode: " + (config.isDebugMode() ? "ON" : "OFF"));
+            writeLine(writer, "Max Students per Course: " + config.getMaxStudentsPerCourse());
+            writeLine(writer, "Max Courses per Student: " + config.getMaxCoursesPerStudent());
+            writeLine(writer, "");
+
+            writeLine(writer, "=".repeat(80));
+            writeLine(writer, "                    END OF REPORT");
+            writeLine(writer, "=".repeat(80));
+        }
 
         System.out.println("✅ Comprehensive report generated: " + filePath.toAbsolutePath());
     }
@@ -265,6 +259,14 @@ public class DataExportService {
         System.out.println("✅ Complete backup created in: " + backupPath.toAbsolutePath());
     }
 
+    /**
+     * Write one line followed by the platform line separator, matching Files.write
+     */
+    private void writeLine(BufferedWriter writer, String line) throws IOException {
+        writer.write(line);
+        writer.newLine();
+    }
+
     /**
      * Helper method to escape CSV values
      */
@@ -3,11 +3,15 @@ package edu.ccrm.io;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.*;
 import edu.ccrm.config.AppConfig;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.io.IOException;
 
@@ -16,6 +20,8 @@ import java.io.IOException;
  * Handles CSV imports with validation and error handling
  */
 public class DataImportService {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
     private final AppConfig config;
     private final DateTimeFormatter dateFormatter;
 
@@ -28,86 +34,162 @@ public class DataImportService {
      * Import students from CSV file
      */
     public ImportResult importStudentsFromCSV(String filename, StudentService studentService) throws IOException {
-        Path filePath = config.getImportPath(filename);
-
-        if (!Files.exists(filePath)) {
-            throw new IOException("Import file not found: " + filePath.toAbsolutePath());
-        }
-
-        List<String> lines = Files.readAllLines(filePath, StandardCharsets.UTF_8);
-        ImportResult result = new ImportResult();
+        return importFromCSV(filename, this::parseStudentFromCSV, studentService::addStudent);
+    }
 
-        if (lines.isEmpty()) {
-            throw new IOException("Import file is empty");
-        }
+    /**
+     * Import courses from CSV file
+     */
+    public ImportResult importCoursesFromCSV(String filename, CourseService courseService) throws IOException {
+        return importFromCSV(filename, this::parseCourseFromCSV, courseService::addCourse);
+    }
 
-        // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
+    /**
+     * Import students through the parallel chunked pipeline
+     * Parsing and validation run on worker threads; rows are committed in file order
+     */
+    public ImportResult importStudentsFromCSVParallel(String filename, StudentService studentService) throws IOException {
+        Path filePath = resolveImportFile(filename);
+        return new ImportPipeline<>(this::parseStudentFromCSV, studentService::addStudent,
+                                    config.getImportWorkerThreads()).run(filePath);
+    }
 
-            try {
-                Student student = parseStudentFromCSV(line);
-                studentService.addStudent(student);
-                result.incrementSuccessful();
-            } catch (Exception e) {
-                result.addError(i + 1, line, e.getMessage());
-            }
-        }
+    /**
+     * Import courses through the parallel chunked pipeline
+     */
+    public ImportResult importCoursesFromCSVParallel(String filename, CourseService courseService) throws IOException {
+        Path filePath = resolveImportFile(filename);
+        return new ImportPipeline<>(this::parseCourseFromCSV, courseService::addCourse,
+                                    config.getImportWorkerThreads()).run(filePath);
+    }
 
-        result.setTotalProcessed(lines.size() - 1); // Exclude header
-        return result;
+    /**
+     * Import students from a memory-mapped file
+     * Regions are split at newline boundaries and parsed in parallel straight from the mapping
+     */
+    public ImportResult importStudentsFromCSVMapped(String filename, StudentService studentService) throws IOException {
+        Path filePath = resolveImportFile(filename);
+        return new ImportPipeline<>(this::parseStudentFromCSV, studentService::addStudent,
+                                    config.getImportWorkerThreads()).runMapped(filePath);
     }
 
     /**
-     * Import courses from CSV file
+     * Import courses from a memory-mapped file
      */
-    public ImportResult importCoursesFromCSV(String filename, CourseService courseService) throws IOException {
+    public ImportResult importCoursesFromCSVMapped(String filename, CourseService courseService) throws IOException {
+        Path filePath = resolveImportFile(filename);
+        return new ImportPipeline<>(this::parseCourseFromCSV, courseService::addCourse,
+                                    config.getImportWorkerThreads()).runMapped(filePath);
+    }
+
+    private Path resolveImportFile(String filename) throws IOException {
         Path filePath = config.getImportPath(filename);
 
         if (!Files.exists(filePath)) {
             throw new IOException("Import file not found: " + filePath.toAbsolutePath());
         }
+        return filePath;
+    }
 
-        List<String> lines = Files.readAllLines(filePath, StandardCharsets.UTF_8);
+    /**
+     * Import a CSV file row by row as one mutation batch, so the write-ahead log is waited on
+     * once for the whole file rather than once per row
+     */
+    private <T> ImportResult importFromCSV(String filename, Function<CsvTokenizer, T> parser,
+                                           Consumer<T> sink) throws IOException {
+        Path filePath = resolveImportFile(filename);
+        return MutationBatch.call(() -> readCSV(filePath, parser, sink));
+    }
+
+    /**
+     * Stream a CSV file through a reused byte buffer, tokenizing each line in place
+     * Only the current buffer is held in memory, so heap use does not grow with file size
+     */
+    private <T> ImportResult readCSV(Path filePath, Function<CsvTokenizer, T> parser,
+                                     Consumer<T> sink) throws IOException {
         ImportResult result = new ImportResult();
+        CsvTokenizer tokenizer = new CsvTokenizer();
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            int lineNumber = 0;
+            int scanFrom = 0;
+            boolean endOfFile = false;
+
+            while (!endOfFile) {
+                endOfFile = channel.read(buffer) < 0;
+                int limit = buffer.position();
+                int lineStart = 0;
+
+                for (int i = scanFrom; i < limit; i++) {
+                    if (buffer.get(i) == '\n') {
+                        importLine(tokenizer, buffer, lineStart, i, ++lineNumber, parser, sink, result);
+                        lineStart = i + 1;
+                    }
+                }
 
-        if (lines.isEmpty()) {
-            throw new IOException("Import file is empty");
-        }
+                // Last line without a trailing newline
+                if (endOfFile && lineStart < limit) {
+                    importLine(tokenizer, buffer, lineStart, limit, ++lineNumber, parser, sink, result);
+                    lineStart = limit;
+                }
 
-        // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
+                if (lineStart == 0 && !buffer.hasRemaining()) {
+                    // A single line longer than the buffer: grow and keep reading
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                } else {
+                    buffer.limit(limit).position(lineStart);
+                    buffer.compact();
+                }
+                scanFrom = buffer.position();
+            }
 
-            try {
-                Course course = parseCourseFromCSV(line);
-                courseService.addCourse(course);
-                result.incrementSuccessful();
-            } catch (Exception e) {
-                result.addError(i + 1, line, e.getMessage());
+            if (lineNumber == 0) {
+                throw new IOException("Import file is empty");
             }
+            result.setTotalProcessed(lineNumber - 1); // Exclude header
         }
 
-        result.setTotalProcessed(lines.size() - 1);
         return result;
     }
 
+    private <T> void importLine(CsvTokenizer tokenizer, ByteBuffer buffer, int start, int end, int lineNumber,
+                                Function<CsvTokenizer, T> parser, Consumer<T> sink, ImportResult result) {
+        // Skip header line
+        if (lineNumber == 1) {
+            return;
+        }
+
+        tokenizer.tokenize(buffer, start, end);
+        if (tokenizer.isBlankLine()) {
+            return;
+        }
+
+        try {
+            sink.accept(parser.apply(tokenizer));
+            result.incrementSuccessful();
+        } catch (Exception e) {
+            result.addError(lineNumber, tokenizer.getLine(), e.getMessage());
+        }
+    }
+
     /**
-     * Parse student from CSV line
+     * Parse student from a tokenized CSV line
      */
-    private Student parseStudentFromCSV(String csvLine) {
-        String[] fields = parseCSVLine(csvLine);
+    private Student parseStudentFromCSV(CsvTokenizer fields) {
+        int fieldCount = fields.getFieldCount();
 
-        if (fields.length < 4) {
-            throw new IllegalArgumentException("Insufficient fields in CSV line. Expected at least 4, got " + fields.length);
+        if (fieldCount < 4) {
+            throw new IllegalArgumentException("Insufficient fields in CSV line. Expected at least 4, got " + fieldCount);
         }
 
-        String studentId = fields[0].trim();
-        String regNo = fields[1].trim();
-        String fullName = fields[2].trim();
-        String email = fields[3].trim();
+        String studentId = fields.getString(0);
+        String regNo = fields.getString(1);
+        String fullName = fields.getString(2);
+        String email = fields.getString(3);
 
         if (studentId.isEmpty() || regNo.isEmpty() || fullName.isEmpty() || email.isEmpty()) {
             throw new IllegalArgumentException("Required fields (ID, RegNo, Name, Email) cannot be empty");
@@ -116,26 +198,26 @@ public class DataImportService {
         Student student = new Student(studentId, fullName, email, regNo);
 
         // Optional fields
-        if (fields.length > 4 && !fields[4].trim().isEmpty()) {
-            student.setPhone(fields[4].trim());
+        if (fieldCount > 4 && !fields.isBlank(4)) {
+            student.setPhone(fields.getString(4));
         }
 
-        if (fields.length > 5 && !fields[5].trim().isEmpty()) {
-            student.setDepartment(fields[5].trim());
+        if (fieldCount > 5 && !fields.isBlank(5)) {
+            student.setDepartment(fields.getString(5));
         }
 
-        if (fields.length > 6 && !fields[6].trim().isEmpty()) {
+        if (fieldCount > 6 && !fields.isBlank(6)) {
             try {
-                int semester = Integer.parseInt(fields[6].trim());
+                int semester = fields.getInt(6);
                 student.setSemester(semester);
             } catch (NumberFormatException e) {
                 // Keep default semester
             }
         }
 
-        if (fields.length > 7 && !fields[7].trim().isEmpty()) {
+        if (fieldCount > 7 && !fields.isBlank(7)) {
             try {
-                StudentStatus status = StudentStatus.valueOf(fields[7].trim().toUpperCase());
+                StudentStatus status = StudentStatus.valueOf(fields.getString(7).toUpperCase());
                 student.setStatus(status);
             } catch (IllegalArgumentException e) {
                 // Keep default status
@@ -146,55 +228,54 @@ public class DataImportService {
     }
 
     /**
-     * Parse course from CSV line
+     * Parse course from a tokenized CSV line
      */
-    private Course parseCourseFromCSV(String csvLine) {
-        String[] fields = parseCSVLine(csvLine);
+    private Course parseCourseFromCSV(CsvTokenizer fields) {
+        int fieldCount = fields.getFieldCount();
 
-        if (fields.length < 4) {
-            throw new IllegalArgumentException("Insufficient fields in CSV line. Expected at least 4, got " + fields.length);
+        if (fieldCount < 4) {
+            throw new IllegalArgumentException("Insufficient fields in CSV line. Expected at least 4, got " + fieldCount);
         }
 
-        String courseCode = fields[0].trim();
-        String title = fields[1].trim();
-        String creditsStr = fields[2].trim();
-        String instructor = fields[3].trim();
+        String courseCode = fields.getString(0);
+        String title = fields.getString(1);
+        String instructor = fields.getString(3);
 
-        if (courseCode.isEmpty() || title.isEmpty() || creditsStr.isEmpty() || instructor.isEmpty()) {
+        if (courseCode.isEmpty() || title.isEmpty() || fields.isBlank(2) || instructor.isEmpty()) {
             throw new IllegalArgumentException("Required fields (Code, Title, Credits, Instructor) cannot be empty");
         }
 
         int credits;
         try {
-            credits = Integer.parseInt(creditsStr);
+            credits = fields.getInt(2);
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid credits value: " + creditsStr);
+            throw new IllegalArgumentException("Invalid credits value: " + fields.getString(2));
         }
 
         Course.Builder builder = new Course.Builder(courseCode, title, credits)
                 .setInstructor(instructor);
 
         // Optional fields
-        if (fields.length > 4 && !fields[4].trim().isEmpty()) {
-            builder.setDepartment(fields[4].trim());
+        if (fieldCount > 4 && !fields.isBlank(4)) {
+            builder.setDepartment(fields.getString(4));
         }
 
-        if (fields.length > 5 && !fields[5].trim().isEmpty()) {
+        if (fieldCount > 5 && !fields.isBlank(5)) {
             try {
-                Semester semester = Semester.valueOf(fields[5].trim().toUpperCase());
+                Semester semester = Semester.valueOf(fields.getString(5).toUpperCase());
                 builder.setSemester(semester);
             } catch (IllegalArgumentException e) {
                 // Keep default semester
             }
         }
 
-        if (fields.length > 6 && !fields[6].trim().isEmpty()) {
-            builder.setDescription(fields[6].trim());
+        if (fieldCount > 6 && !fields.isBlank(6)) {
+            builder.setDescription(fields.getString(6));
         }
 
-        if (fields.length > 7 && !fields[7].trim().isEmpty()) {
+        if (fieldCount > 7 && !fields.isBlank(7)) {
             try {
-                int maxCapacity = Integer.parseInt(fields[7].trim());
+                int maxCapacity = fields.getInt(7);
                 builder.setMaxCapacity(maxCapacity);
             } catch (NumberFormatException e) {
                 // Keep default capacity
@@ -204,41 +285,6 @@ public class DataImportService {
         return builder.build();
     }
 
-    /**
-     * Parse CSV line handling quotes and commas
-     */
-    private String[] parseCSVLine(String line) {
-        List<String> fields = new ArrayList<>();
-        StringBuilder currentField = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (c == '\"') {
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '\"') {
-                    // Escaped quote
-                    currentField.append('\"');
-                    i++; // Skip next quote
-                } else {
-                    // Toggle quote state
-                    inQuotes = !inQuotes;
-                }
-            } else if (c == ',' && !inQuotes) {
-                // Field separator
-                fields.add(currentField.toString());
-                currentField = new StringBuilder();
-            } else {
-                currentField.append(c);
-            }
-        }
-
-        // Add the last field
-        fields.add(currentField.toString());
-
-        return fields.toArray(new String[0]);
-    }
-
     /**
      * Create sample import files for testing
      */
@@ -327,9 +373,11 @@ public class DataImportService {
         private int totalProcessed = 0;
         private int successful = 0;
         private final List<ImportError> errors = new ArrayList<>();
+        private ImportPipeline.PipelineMetrics pipelineMetrics;
 
         public void setTotalProcessed(int total) { this.totalProcessed = total; }
         public void incrementSuccessful() { this.successful++; }
+        public void setPipelineMetrics(ImportPipeline.PipelineMetrics metrics) { this.pipelineMetrics = metrics; }
 
         public void addError(int lineNumber, String line, String errorMessage) {
             errors.add(new ImportError(lineNumber, line, errorMessage));
@@ -339,6 +387,7 @@ public class DataImportService {
         public int getSuccessful() { return successful; }
         public int getFailed() { return totalProcessed - successful; }
         public List<ImportError> getErrors() { return new ArrayList<>(errors); }
+        public ImportPipeline.PipelineMetrics getPipelineMetrics() { return pipelineMetrics; }
 
         public void displayResults() {
             System.out.println("\n" + "=".repeat(50));
@@ -348,6 +397,14 @@ public class DataImportService {
             System.out.println("Successful      : " + successful);
             System.out.println("Failed          : " + getFailed());
 
+            if (pipelineMetrics != null) {
+                System.out.println("Workers         : " + pipelineMetrics.getWorkerCount());
+                System.out.println("Elapsed         : " + pipelineMetrics.getElapsedMillis() + " ms");
+                System.out.println("Rows/sec        : " + String.format("%.0f", pipelineMetrics.getRowsPerSecond()));
+                System.out.println("Peak Queues     : parse=" + pipelineMetrics.getPeakParseQueueDepth() +
+                                   ", commit=" + pipelineMetrics.getPeakCommitQueueDepth());
+            }
+
             if (!errors.isEmpty()) {
                 System.out.println("\nErrors:");
                 System.out.println("-".repeat(30));
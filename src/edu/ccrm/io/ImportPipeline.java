@@ -0,0 +1,501 @@
+package edu.ccrm.io;
+
+import edu.ccrm.service.MutationBatch;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Staged CSV import pipeline
+ * Reader thread -> newline-aligned chunks -> parser workers -> single committer (caller thread)
+ * The committer applies chunks strictly in file order, so errors are reported in line order
+ *
+ * Chunks are either read into heap buffers or, in memory-mapped mode, are read-only
+ * mappings of file regions that workers tokenize without copying
+ */
+public class ImportPipeline<T> {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int PROBE_SIZE = 8 * 1024;
+    // Mappings are only released when collected, so keep their number modest
+    private static final int MIN_MAPPED_REGION_SIZE = 4 << 20;
+
+    private final Function<CsvTokenizer, T> parser;
+    private final Consumer<T> sink;
+    private final int workerCount;
+    private final int chunkSize;
+
+    private final BlockingQueue<Chunk> parseQueue;
+    private final BlockingQueue<ParsedChunk<T>> commitQueue;
+    // One permit per chunk between the reader and the committer, so chunks parsed ahead of a
+    // slow one cannot pile up in the committer without limit
+    private final Semaphore chunkPermits;
+    private final AtomicInteger peakParseQueueDepth = new AtomicInteger();
+    private final AtomicInteger peakCommitQueueDepth = new AtomicInteger();
+    private final AtomicLong rowsCommitted = new AtomicLong();
+
+    public ImportPipeline(Function<CsvTokenizer, T> parser, Consumer<T> sink, int workerCount) {
+        this(parser, sink, workerCount, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ImportPipeline(Function<CsvTokenizer, T> parser, Consumer<T> sink, int workerCount, int chunkSize) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        this.parser = parser;
+        this.sink = sink;
+        this.workerCount = workerCount;
+        this.chunkSize = chunkSize;
+        // Bounded so a fast reader cannot pull the whole file onto the heap
+        this.parseQueue = new ArrayBlockingQueue<>(workerCount * 2);
+        this.commitQueue = new ArrayBlockingQueue<>(workerCount * 2);
+        this.chunkPermits = new Semaphore(workerCount * 4);
+    }
+
+    /**
+     * Run the pipeline over a CSV file, skipping its header line
+     */
+    public DataImportService.ImportResult run(Path filePath) throws IOException {
+        return run(filePath, false);
+    }
+
+    /**
+     * Run the pipeline over a memory-mapped CSV file
+     * The file is split into regions at newline boundaries and each region is mapped
+     * with FileChannel.map, so file data is never copied onto the Java heap
+     */
+    public DataImportService.ImportResult runMapped(Path filePath) throws IOException {
+        return run(filePath, true);
+    }
+
+    private DataImportService.ImportResult run(Path filePath, boolean memoryMapped) throws IOException {
+        DataImportService.ImportResult result = new DataImportService.ImportResult();
+        long startNanos = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            if (!skipHeader(channel, ByteBuffer.allocate(PROBE_SIZE))) {
+                throw new IOException("Import file is empty");
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(workerCount + 1, runnable -> {
+                Thread thread = new Thread(runnable, "ccrm-import");
+                thread.setDaemon(true);
+                return thread;
+            });
+            AtomicLong chunksRead = new AtomicLong(-1);
+            Future<?> reader = executor.submit(() -> {
+                chunksRead.set(memoryMapped ? mapRegions(channel) : readChunks(channel));
+                return null;
+            });
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(executor.submit(this::parseChunks));
+            }
+
+            try {
+                commitChunks(result, reader, workers, chunksRead);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        result.setPipelineMetrics(new PipelineMetrics(rowsCommitted.get(), elapsedNanos,
+            peakParseQueueDepth.get(), peakCommitQueueDepth.get(), workerCount));
+        return result;
+    }
+
+    /**
+     * Current number of chunks waiting for a parser worker
+     */
+    public int getParseQueueDepth() {
+        return parseQueue.size();
+    }
+
+    /**
+     * Current number of parsed chunks waiting for the committer
+     */
+    public int getCommitQueueDepth() {
+        return commitQueue.size();
+    }
+
+    /**
+     * Position the channel just past the header line
+     * Returns false if the file is empty
+     */
+    private boolean skipHeader(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long position = 0;
+        boolean sawData = false;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                channel.position(position);
+                return sawData;
+            }
+            sawData = true;
+
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    channel.position(position + i + 1);
+                    return true;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Reader stage: cut the file into chunks that end on a line boundary
+     * Returns the number of chunks produced
+     */
+    private long readChunks(FileChannel channel) throws IOException, InterruptedException {
+        long sequence = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+
+        try {
+            while (true) {
+                boolean endOfFile = channel.read(buffer) < 0;
+                if (!endOfFile && buffer.hasRemaining()) {
+                    continue;
+                }
+
+                int end = endOfFile ? buffer.position() : lastNewline(buffer) + 1;
+                if (end == 0) {
+                    if (endOfFile) {
+                        break;
+                    }
+                    // A single line longer than the buffer: grow and keep reading
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                    continue;
+                }
+
+                byte[] data = new byte[end];
+                buffer.flip();
+                buffer.get(data);
+                buffer.compact();
+
+                chunkPermits.acquire();
+                parseQueue.put(new Chunk(sequence++, ByteBuffer.wrap(data)));
+                recordPeak(peakParseQueueDepth, parseQueue.size());
+
+                if (endOfFile) {
+                    break;
+                }
+            }
+        } finally {
+            signalEnd();
+        }
+        return sequence;
+    }
+
+    /**
+     * Reader stage in memory-mapped mode: map regions of at least chunkSize bytes,
+     * each extended to the end of the line it would otherwise split
+     */
+    private long mapRegions(FileChannel channel) throws IOException, InterruptedException {
+        long sequence = 0;
+        long regionSize = Math.max(chunkSize, MIN_MAPPED_REGION_SIZE);
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+
+        try {
+            long size = channel.size();
+            long start = channel.position();
+            while (start < size) {
+                long end = Math.min(start + regionSize, size);
+                if (end < size) {
+                    end = nextLineStart(channel, end, size, probe);
+                }
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("Line at byte " + start + " is too long to map");
+                }
+
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                chunkPermits.acquire();
+                parseQueue.put(new Chunk(sequence++, region));
+                recordPeak(peakParseQueueDepth, parseQueue.size());
+                start = end;
+            }
+        } finally {
+            signalEnd();
+        }
+        return sequence;
+    }
+
+    /**
+     * Offset just past the first newline at or after position, or the file size if there is none
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size, 
+                                      ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private void signalEnd() throws InterruptedException {
+        for (int i = 0; i < workerCount; i++) {
+            parseQueue.put(Chunk.END);
+        }
+    }
+
+    private static int lastNewline(ByteBuffer buffer) {
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parser stage: tokenize and parse every line of a chunk in place
+     */
+    private Void parseChunks() throws InterruptedException {
+        CsvTokenizer tokenizer = new CsvTokenizer();
+        while (true) {
+            Chunk chunk = parseQueue.take();
+            if (chunk == Chunk.END) {
+                return null;
+            }
+
+            List<ParsedRow<T>> rows = new ArrayList<>();
+            int lineCount = 0;
+            int start = 0;
+            ByteBuffer data = chunk.data;
+            int length = data.limit();
+            while (start < length) {
+                int end = start;
+                while (end < length && data.get(end) != '\n') {
+                    end++;
+                }
+
+                tokenizer.tokenize(data, start, end);
+                if (!tokenizer.isBlankLine()) {
+                    try {
+                        rows.add(ParsedRow.parsed(lineCount, start, end, parser.apply(tokenizer)));
+                    } catch (Exception e) {
+                        rows.add(ParsedRow.failed(lineCount, tokenizer.getLine(), e.getMessage()));
+                    }
+                }
+
+                lineCount++;
+                start = end + 1;
+            }
+
+            commitQueue.put(new ParsedChunk<>(chunk.sequence, lineCount, rows, data));
+            recordPeak(peakCommitQueueDepth, commitQueue.size());
+        }
+    }
+
+    /**
+     * Committer stage: apply parsed chunks in sequence order, one chunk per batch
+     * Each chunk is applied as a MutationBatch, so durability is awaited once per chunk
+     */
+    private void commitChunks(DataImportService.ImportResult result, Future<?> reader, List<Future<?>> workers,
+                              AtomicLong chunksRead) throws IOException {
+        Map<Long, ParsedChunk<T>> pending = new HashMap<>();
+        CsvTokenizer tokenizer = new CsvTokenizer();
+        long nextSequence = 0;
+        int lineBase = 2; // First line after the header
+        int processed = 0;
+
+        while (chunksRead.get() < 0 || nextSequence < chunksRead.get()) {
+            ParsedChunk<T> parsed;
+            try {
+                parsed = commitQueue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            }
+
+            if (parsed == null) {
+                // A dead stage would leave the committer waiting for a chunk that never comes
+                checkStage(reader, "reader");
+                for (Future<?> worker : workers) {
+                    checkStage(worker, "parser");
+                }
+                continue;
+            }
+
+            pending.put(parsed.sequence, parsed);
+            ParsedChunk<T> next;
+            while ((next = pending.remove(nextSequence)) != null) {
+                ParsedChunk<T> chunk = next;
+                int chunkLineBase = lineBase;
+                MutationBatch.run(() -> commitChunk(chunk, chunkLineBase, result, tokenizer));
+                chunkPermits.release();
+
+                lineBase += next.lineCount;
+                processed += next.lineCount;
+                nextSequence++;
+            }
+        }
+
+        checkStage(reader, "reader");
+        result.setTotalProcessed(processed);
+    }
+
+    private void commitChunk(ParsedChunk<T> chunk, int lineBase, DataImportService.ImportResult result,
+                             CsvTokenizer tokenizer) {
+        for (ParsedRow<T> row : chunk.rows) {
+            int lineNumber = lineBase + row.offset;
+            if (row.error != null) {
+                result.addError(lineNumber, row.line, row.error);
+                continue;
+            }
+
+            try {
+                sink.accept(row.value);
+                result.incrementSuccessful();
+                rowsCommitted.incrementAndGet();
+            } catch (Exception e) {
+                // Decode the line only now that it is needed for the report
+                tokenizer.tokenize(chunk.data, row.start, row.end);
+                result.addError(lineNumber, tokenizer.getLine(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rethrow the failure of a finished pipeline stage; a stage still running, or one that
+     * finished normally, passes
+     */
+    private static void checkStage(Future<?> stage, String name) throws IOException {
+        if (!stage.isDone()) {
+            return;
+        }
+
+        try {
+            stage.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Import " + name + " failed: " + cause, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        }
+    }
+
+    private static void recordPeak(AtomicInteger peak, int depth) {
+        peak.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * Raw chunk of whole lines, either a heap copy or a mapped file region
+     */
+    private static class Chunk {
+        static final Chunk END = new Chunk(-1, ByteBuffer.allocate(0));
+
+        final long sequence;
+        final ByteBuffer data;
+
+        Chunk(long sequence, ByteBuffer data) {
+            this.sequence = sequence;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Parsed rows of one chunk, with line offsets relative to the chunk start
+     */
+    private static class ParsedChunk<T> {
+        final long sequence;
+        final int lineCount;
+        final List<ParsedRow<T>> rows;
+        final ByteBuffer data;
+
+        ParsedChunk(long sequence, int lineCount, List<ParsedRow<T>> rows, ByteBuffer data) {
+            this.sequence = sequence;
+            this.lineCount = lineCount;
+            this.rows = rows;
+            this.data = data;
+        }
+    }
+
+    /**
+     * One non-blank line: either a parsed value (with its byte range) or a parse error
+     */
+    private static class ParsedRow<T> {
+        final int offset;
+        final int start;
+        final int end;
+        final T value;
+        final String line;
+        final String error;
+
+        private ParsedRow(int offset, int start, int end, T value, String line, String error) {
+            this.offset = offset;
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.line = line;
+            this.error = error;
+        }
+
+        static <T> ParsedRow<T> parsed(int offset, int start, int end, T value) {
+            return new ParsedRow<>(offset, start, end, value, null, null);
+        }
+
+        static <T> ParsedRow<T> failed(int offset, String line, String error) {
+            return new ParsedRow<>(offset, -1, -1, null, line, error);
+        }
+    }
+
+    /**
+     * Throughput and back-pressure figures for one pipeline run
+     */
+    public static class PipelineMetrics {
+        private final long rowsCommitted;
+        private final long elapsedNanos;
+        private final int peakParseQueueDepth;
+        private final int peakCommitQueueDepth;
+        private final int workerCount;
+
+        public PipelineMetrics(long rowsCommitted, long elapsedNanos, int peakParseQueueDepth,
+                               int peakCommitQueueDepth, int workerCount) {
+            this.rowsCommitted = rowsCommitted;
+            this.elapsedNanos = elapsedNanos;
+            this.peakParseQueueDepth = peakParseQueueDepth;
+            this.peakCommitQueueDepth = peakCommitQueueDepth;
+            this.workerCount = workerCount;
+        }
+
+        public double getRowsPerSecond() {
+            return rowsCommitted * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public long getRowsCommitted() { return rowsCommitted; }
+        public long getElapsedMillis() { return TimeUnit.NANOSECONDS.toMillis(elapsedNanos); }
+        public int getPeakParseQueueDepth() { return peakParseQueueDepth; }
+        public int getPeakCommitQueueDepth() { return peakCommitQueueDepth; }
+        public int getWorkerCount() { return workerCount; }
+    }
+}
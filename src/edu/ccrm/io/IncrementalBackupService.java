@@ -0,0 +1,338 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Incremental backups: one full base snapshot followed by a chain of deltas
+ *
+ * The service listens to the other services and remembers which students, courses and
+ * enrollments changed since the last backup. A delta holds only those records, plus the keys
+ * of students and courses that were deleted, so its size follows the change rate rather than
+ * the size of the dataset. Restoring loads the base and then each delta in order.
+ *
+ * The chain is listed in a manifest that is replaced atomically after each backup, so a crash
+ * mid-backup leaves the previous chain intact. A new base is written on the first backup of
+ * a session (changes made before start-up were not tracked) and once the chain reaches the
+ * configured number of deltas.
+ */
+public class IncrementalBackupService implements MutationListener {
+    private static final String MANIFEST_NAME = "chain.manifest";
+    private static final String BASE_PREFIX = "base-";
+    private static final String DELTA_PREFIX = "delta-";
+    private static final String FILE_SUFFIX = ".snap";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+
+    private final Path directory;
+    private final SnapshotService snapshotService;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+    private final int maxDeltas;
+
+    // Listeners add under the read lock; a backup swaps the sets under the write lock,
+    // so no change can land in a set after it has been taken
+    private final ReadWriteLock dirtyLock;
+    private ChangeSet changes;
+
+    // Guarded by this
+    private boolean needsBase;
+
+    public IncrementalBackupService(Path directory, SnapshotService snapshotService,
+                                    StudentService studentService, CourseService courseService,
+                                    EnrollmentService enrollmentService, int maxDeltas) {
+        this.directory = directory;
+        this.snapshotService = snapshotService;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+        this.maxDeltas = maxDeltas;
+        this.dirtyLock = new ReentrantReadWriteLock();
+        this.changes = new ChangeSet();
+        this.needsBase = true;
+    }
+
+    /**
+     * Start tracking changes made through the services
+     */
+    public void register() {
+        studentService.addMutationListener(this);
+        courseService.addMutationListener(this);
+        enrollmentService.addMutationListener(this);
+    }
+
+    @Override
+    public void onStudentChanged(Student student) {
+        markDirty(c -> c.students.add(student.getId()));
+    }
+
+    @Override
+    public void onStudentRemoved(String studentId) {
+        markDirty(c -> c.students.add(studentId));
+    }
+
+    @Override
+    public void onCourseChanged(Course course) {
+        markDirty(c -> c.courses.add(course.getCode()));
+    }
+
+    @Override
+    public void onCourseRemoved(String courseCode) {
+        markDirty(c -> c.courses.add(courseCode));
+    }
+
+    @Override
+    public void onEnrollmentChanged(Enrollment enrollment) {
+        markDirty(c -> c.enrollments.put(enrollment.getEnrollmentId(), enrollment));
+    }
+
+    private void markDirty(Consumer<ChangeSet> update) {
+        dirtyLock.readLock().lock();
+        try {
+            update.accept(changes);
+        } finally {
+            dirtyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write a base or a delta, whichever the chain needs next
+     * Records changed while the backup runs may appear in this backup and again in the next one;
+     * re-applying them on restore is harmless because every record is a full upsert
+     */
+    public synchronized BackupResult backup() throws IOException {
+        List<String> chain = readManifest();
+        if (needsBase || chain.isEmpty() || chain.size() > maxDeltas) {
+            return writeBase();
+        }
+
+        ChangeSet taken = takeChanges();
+        if (taken.isEmpty()) {
+            return new BackupResult(false, chain.size() - 1, null);
+        }
+        try {
+            List<Student> students = new ArrayList<>();
+            List<String> removedStudentIds = new ArrayList<>();
+            for (String studentId : taken.students) {
+                studentService.findStudentById(studentId)
+                    .ifPresentOrElse(students::add, () -> removedStudentIds.add(studentId));
+            }
+
+            List<Course> courses = new ArrayList<>();
+            List<String> removedCourseCodes = new ArrayList<>();
+            for (String courseCode : taken.courses) {
+                courseService.findCourseByCode(courseCode)
+                    .ifPresentOrElse(courses::add, () -> removedCourseCodes.add(courseCode));
+            }
+
+            Path file = directory.resolve(newFileName(DELTA_PREFIX));
+            SnapshotService.SnapshotSummary summary = snapshotService.writeDelta(file, courses, students,
+                new ArrayList<>(taken.enrollments.values()), removedStudentIds, removedCourseCodes);
+
+            List<String> newChain = new ArrayList<>(chain);
+            newChain.add(file.getFileName().toString());
+            writeManifest(newChain);
+            return new BackupResult(false, newChain.size() - 1, summary);
+        } catch (IOException | RuntimeException e) {
+            // Nothing was published, so the changes must go into the next attempt
+            restoreChanges(taken);
+            throw e;
+        }
+    }
+
+    /**
+     * Start a new chain with a full snapshot and delete the files of the old chain
+     */
+    private BackupResult writeBase() throws IOException {
+        // Changes from here on belong to the first delta of the new chain
+        ChangeSet taken = takeChanges();
+        Path file = directory.resolve(newFileName(BASE_PREFIX));
+        SnapshotService.SnapshotSummary summary;
+        try {
+            summary = snapshotService.writeSnapshot(file, studentService, courseService, enrollmentService);
+            writeManifest(List.of(file.getFileName().toString()));
+        } catch (IOException | RuntimeException e) {
+            restoreChanges(taken);
+            throw e;
+        }
+        needsBase = false;
+        deleteUnlistedFiles(file);
+        return new BackupResult(true, 0, summary);
+    }
+
+    /**
+     * Rebuild state from the base and every delta in the chain
+     * Records are merged into the services by key, so restore into empty services for an exact copy.
+     * The next backup starts a new chain.
+     */
+    public synchronized RestoreResult restore() throws IOException {
+        List<String> chain = readManifest();
+        if (chain.isEmpty()) {
+            throw new IOException("No incremental backup found in " + directory.toAbsolutePath());
+        }
+
+        long start = System.nanoTime();
+        long bytes = MutationBatch.call(() -> {
+            long loaded = 0;
+            for (String name : chain) {
+                loaded += snapshotService.loadSnapshot(directory.resolve(name),
+                    studentService, courseService, enrollmentService).getBytes();
+            }
+            return loaded;
+        });
+        needsBase = true;
+        return new RestoreResult(chain.size(), bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Number of files in the current chain, base included
+     */
+    public synchronized int getChainLength() throws IOException {
+        return readManifest().size();
+    }
+
+    private ChangeSet takeChanges() {
+        dirtyLock.writeLock().lock();
+        try {
+            ChangeSet taken = changes;
+            changes = new ChangeSet();
+            return taken;
+        } finally {
+            dirtyLock.writeLock().unlock();
+        }
+    }
+
+    private void restoreChanges(ChangeSet taken) {
+        markDirty(c -> {
+            c.students.addAll(taken.students);
+            c.courses.addAll(taken.courses);
+            taken.enrollments.forEach(c.enrollments::putIfAbsent);
+        });
+    }
+
+    private String newFileName(String prefix) {
+        return prefix + LocalDateTime.now().format(FILE_TIMESTAMP) + "_" + System.nanoTime() + FILE_SUFFIX;
+    }
+
+    /**
+     * File names in the chain, base first; empty if there is no manifest yet
+     */
+    private List<String> readManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST_NAME);
+        if (!Files.exists(manifest)) {
+            return new ArrayList<>();
+        }
+        List<String> chain = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                chain.add(line.trim());
+            }
+        }
+        return chain;
+    }
+
+    private void writeManifest(List<String> chain) throws IOException {
+        Files.createDirectories(directory);
+        Path tempFile = directory.resolve(MANIFEST_NAME + ".tmp");
+        Files.write(tempFile, chain, StandardCharsets.UTF_8);
+        Files.move(tempFile, directory.resolve(MANIFEST_NAME),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Remove bases and deltas that belong to older chains
+     */
+    private void deleteUnlistedFiles(Path newBase) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean chainFile = name.startsWith(BASE_PREFIX) || name.startsWith(DELTA_PREFIX);
+                if (chainFile && !file.getFileName().equals(newBase.getFileName())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keys changed since the last backup
+     */
+    private static class ChangeSet {
+        final Set<String> students = ConcurrentHashMap.newKeySet();
+        final Set<String> courses = ConcurrentHashMap.newKeySet();
+        final Map<String, Enrollment> enrollments = new ConcurrentHashMap<>();
+
+        boolean isEmpty() {
+            return students.isEmpty() && courses.isEmpty() && enrollments.isEmpty();
+        }
+    }
+
+    /**
+     * Outcome of one backup; the summary is null when nothing had changed and no file was written
+     */
+    public static class BackupResult {
+        private final boolean base;
+        private final int deltaNumber;
+        private final SnapshotService.SnapshotSummary summary;
+
+        public BackupResult(boolean base, int deltaNumber, SnapshotService.SnapshotSummary summary) {
+            this.base = base;
+            this.deltaNumber = deltaNumber;
+            this.summary = summary;
+        }
+
+        public boolean isBase() { return base; }
+        public int getDeltaNumber() { return deltaNumber; }
+        public SnapshotService.SnapshotSummary getSummary() { return summary; }
+
+        public void displayResult() {
+            if (summary == null) {
+                System.out.println("ℹ️  No changes since the last backup, nothing written");
+                return;
+            }
+            if (base) {
+                System.out.println("✅ Base backup written: " + summary.getFile().toAbsolutePath());
+            } else {
+                System.out.println("✅ Delta #" + deltaNumber + " written: " + summary.getFile().toAbsolutePath());
+            }
+            System.out.println("   " + summary.getStudentCount() + " students, " + summary.getCourseCount() +
+                " courses, " + summary.getEnrollmentCount() + " enrollments, " + summary.getRemovedCount() +
+                " removed (" + summary.getBytes() + " bytes, " + summary.getElapsedMillis() + " ms)");
+        }
+    }
+
+    /**
+     * Outcome of a restore
+     */
+    public static class RestoreResult {
+        private final int filesApplied;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        public RestoreResult(int filesApplied, long bytes, long elapsedNanos) {
+            this.filesApplied = filesApplied;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getFilesApplied() { return filesApplied; }
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return TimeUnit.NANOSECONDS.toMillis(elapsedNanos); }
+
+        public void displayResult() {
+            System.out.println("✅ Restored base and " + (filesApplied - 1) + " delta(s), " + bytes +
+                " bytes in " + getElapsedMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Compact binary encoding of students, courses and enrollments
+ * Counts and small numbers are varints; enums are stored by ordinal, so reordering
+ * an enum requires a new format version
+ *
+ * Identifiers that repeat across records (IDs, course codes, departments, instructors) can be
+ * dictionary-encoded: the first occurrence is written literally and later ones as a varint code.
+ * The dictionary lives in the codec instance, so use one instance per stream and read records
+ * back in the order they were written
+ */
+public class RecordCodec {
+    // Symbol tags: null, literal that joins the dictionary, then dictionary codes
+    private static final int NULL_TAG = 0;
+    private static final int LITERAL_TAG = 1;
+    private static final int FIRST_CODE_TAG = 2;
+
+    private final boolean dictionaryEncoding;
+    private final Map<String, Integer> symbolCodes;
+    private final List<String> symbols;
+
+    public RecordCodec() {
+        this(true);
+    }
+
+    /**
+     * Codec with dictionary encoding turned off writes every record self-contained
+     */
+    public RecordCodec(boolean dictionaryEncoding) {
+        this.dictionaryEncoding = dictionaryEncoding;
+        this.symbolCodes = new HashMap<>();
+        this.symbols = new ArrayList<>();
+    }
+
+    /**
+     * Student record; GPA is not stored because it is derived from the grades
+     */
+    public void writeStudent(DataOutput out, Student student) throws IOException {
+        writeSymbol(out, student.getId());
+        writeString(out, student.getRegNo());
+        writeString(out, student.getFullName());
+        writeString(out, student.getEmail());
+        writeString(out, student.getPhone());
+        writeSymbol(out, student.getDepartment());
+        writeVarInt(out, student.getSemester());
+        out.writeByte(student.getStatus().ordinal());
+        writeDateTime(out, student.getCreatedDate());
+        writeDateTime(out, student.getEnrollmentDate());
+
+        List<String> courses = student.getEnrolledCourses();
+        writeVarInt(out, courses.size());
+        for (String course : courses) {
+            writeSymbol(out, course);
+        }
+
+        Map<String, Grade> grades = student.getCourseGrades();
+        writeVarInt(out, grades.size());
+        for (Map.Entry<String, Grade> entry : grades.entrySet()) {
+            writeSymbol(out, entry.getKey());
+            out.writeByte(entry.getValue().ordinal());
+        }
+    }
+
+    public Student readStudent(DataInput in) throws IOException {
+        String id = readSymbol(in);
+        String regNo = readString(in);
+        String fullName = readString(in);
+        String email = readString(in);
+        String phone = readString(in);
+        String department = readSymbol(in);
+        int semester = readVarInt(in);
+        StudentStatus status = readEnum(in, StudentStatus.values());
+        LocalDateTime createdDate = readDateTime(in);
+        LocalDateTime enrollmentDate = readDateTime(in);
+
+        int courseCount = readVarInt(in);
+        List<String> courses = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            courses.add(readSymbol(in));
+        }
+
+        int gradeCount = readVarInt(in);
+        Map<String, Grade> grades = new HashMap<>();
+        for (int i = 0; i < gradeCount; i++) {
+            grades.put(readSymbol(in), readEnum(in, Grade.values()));
+        }
+
+        Student student = new Student(id, fullName, email, regNo, department, semester);
+        student.setPhone(phone);
+        student.setStatus(status);
+        student.restoreState(createdDate, enrollmentDate, courses, grades);
+        return student;
+    }
+
+    /**
+     * Course record, including the IDs of its enrolled students
+     */
+    public void writeCourse(DataOutput out, Course course) throws IOException {
+        writeSymbol(out, course.getCode());
+        writeString(out, course.getTitle());
+        writeVarInt(out, course.getCredits());
+        writeSymbol(out, course.getInstructor());
+        out.writeByte(course.getSemester().ordinal());
+        writeSymbol(out, course.getDepartment());
+        writeString(out, course.getDescription());
+        writeVarInt(out, course.getMaxCapacity());
+        writeTime(out, course.getStartTime());
+        writeTime(out, course.getEndTime());
+
+        List<String> prerequisites = course.getPrerequisites();
+        writeVarInt(out, prerequisites.size());
+        for (String prerequisite : prerequisites) {
+            writeSymbol(out, prerequisite);
+        }
+
+        Set<String> enrolled = course.getEnrolledStudents();
+        writeVarInt(out, enrolled.size());
+        for (String studentId : enrolled) {
+            writeSymbol(out, studentId);
+        }
+    }
+
+    public Course readCourse(DataInput in) throws IOException {
+        String code = readSymbol(in);
+        String title = readString(in);
+        int credits = readVarInt(in);
+        String instructor = readSymbol(in);
+        Semester semester = readEnum(in, Semester.values());
+        String department = readSymbol(in);
+        String description = readString(in);
+        int maxCapacity = readVarInt(in);
+        LocalTime startTime = readTime(in);
+        LocalTime endTime = readTime(in);
+
+        int prerequisiteCount = readVarInt(in);
+        List<String> prerequisites = new ArrayList<>(prerequisiteCount);
+        for (int i = 0; i < prerequisiteCount; i++) {
+            prerequisites.add(readSymbol(in));
+        }
+
+        int enrolledCount = readVarInt(in);
+        List<String> enrolled = new ArrayList<>(enrolledCount);
+        for (int i = 0; i < enrolledCount; i++) {
+            enrolled.add(readSymbol(in));
+        }
+
+        Course course = new Course.Builder(code, title, credits)
+                .setInstructor(instructor)
+                .setSemester(semester)
+                .setDepartment(department)
+                .setDescription(description)
+                .setMaxCapacity(maxCapacity)
+                .setPrerequisites(prerequisites)
+                .setSchedule(startTime, endTime)
+                .build();
+        course.restoreEnrolledStudents(enrolled);
+        return course;
+    }
+
+    public void writeEnrollment(DataOutput out, Enrollment enrollment) throws IOException {
+        writeString(out, enrollment.getEnrollmentId());
+        writeSymbol(out, enrollment.getStudentId());
+        writeSymbol(out, enrollment.getCourseCode());
+        writeDateTime(out, enrollment.getEnrollmentDate());
+        out.writeByte(enrollment.getStatus().ordinal());
+        Grade grade = enrollment.getAssignedGrade();
+        out.writeByte(grade == null ? 0 : grade.ordinal() + 1);
+        writeString(out, enrollment.getRemarks());
+    }
+
+    public Enrollment readEnrollment(DataInput in) throws IOException {
+        String enrollmentId = readString(in);
+        String studentId = readSymbol(in);
+        String courseCode = readSymbol(in);
+        LocalDateTime enrollmentDate = readDateTime(in);
+        Enrollment.EnrollmentStatus status = readEnum(in, Enrollment.EnrollmentStatus.values());
+        int gradeTag = in.readUnsignedByte();
+        Grade grade = gradeTag == 0 ? null : enumAt(Grade.values(), gradeTag - 1);
+        String remarks = readString(in);
+
+        return new Enrollment(enrollmentId, studentId, courseCode, enrollmentDate, status, grade, remarks);
+    }
+
+    /**
+     * Write a repeating identifier, using its dictionary code if it was seen before
+     */
+    public void writeSymbol(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, NULL_TAG);
+            return;
+        }
+
+        if (dictionaryEncoding) {
+            Integer code = symbolCodes.get(value);
+            if (code != null) {
+                writeVarInt(out, code + FIRST_CODE_TAG);
+                return;
+            }
+            symbolCodes.put(value, symbols.size());
+            symbols.add(value);
+        }
+
+        writeVarInt(out, LITERAL_TAG);
+        writeString(out, value);
+    }
+
+    public String readSymbol(DataInput in) throws IOException {
+        int tag = readVarInt(in);
+        if (tag == NULL_TAG) {
+            return null;
+        }
+        if (tag == LITERAL_TAG) {
+            String value = readString(in);
+            if (dictionaryEncoding) {
+                symbols.add(value);
+            }
+            return value;
+        }
+
+        int code = tag - FIRST_CODE_TAG;
+        if (!dictionaryEncoding || code >= symbols.size()) {
+            throw new IOException("Corrupt record: unknown symbol code " + code);
+        }
+        return symbols.get(code);
+    }
+
+    /**
+     * Nullable UTF-8 string: varint (length + 1), 0 for null, then the bytes
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Unsigned LEB128 varint; negative values take five bytes
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt record: varint too long");
+    }
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt record: varint too long");
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        writeVarInt(out, dateTime.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        long epochSecond = in.readLong();
+        int nano = readVarInt(in);
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private static void writeTime(DataOutput out, LocalTime time) throws IOException {
+        writeVarLong(out, time.toNanoOfDay());
+    }
+
+    private static LocalTime readTime(DataInput in) throws IOException {
+        return LocalTime.ofNanoOfDay(readVarLong(in));
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInput in, E[] values) throws IOException {
+        return enumAt(values, in.readUnsignedByte());
+    }
+
+    private static <E extends Enum<E>> E enumAt(E[] values, int ordinal) throws IOException {
+        if (ordinal >= values.length) {
+            throw new IOException("Corrupt record: ordinal " + ordinal + " out of range");
+        }
+        return values[ordinal];
+    }
+}
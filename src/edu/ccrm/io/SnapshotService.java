@@ -0,0 +1,355 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.*;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the full in-memory state
+ *
+ * Layout: header [magic][version][created millis][log LSN], then sections of
+ * [tag][varint count] followed by [varint length][record] entries, then
+ * [END tag][CRC32C of everything before the checksum]
+ *
+ * Records are encoded by RecordCodec with one dictionary for the whole file.
+ * Loading decodes and verifies the entire file before anything is installed,
+ * and records go straight into the service maps without re-validation
+ *
+ * A delta file uses the same layout with only changed records, plus sections
+ * listing removed student IDs and course codes
+ */
+public class SnapshotService {
+    public static final int MAGIC = 0x43434D53; // "CCMS"
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int SECTION_END = 0;
+    private static final int SECTION_COURSES = 1;
+    private static final int SECTION_STUDENTS = 2;
+    private static final int SECTION_ENROLLMENTS = 3;
+    private static final int SECTION_REMOVED_STUDENTS = 4;
+    private static final int SECTION_REMOVED_COURSES = 5;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Write a snapshot of all services to the given file
+     */
+    public SnapshotSummary writeSnapshot(Path file, StudentService studentService,
+                                         CourseService courseService,
+                                         EnrollmentService enrollmentService) throws IOException {
+        return writeSnapshot(file, 0, studentService, courseService, enrollmentService);
+    }
+
+    /**
+     * Write a snapshot that includes every logged change up to logLsn
+     */
+    public SnapshotSummary writeSnapshot(Path file, long logLsn, StudentService studentService,
+                                         CourseService courseService,
+                                         EnrollmentService enrollmentService) throws IOException {
+        return writeFile(file, logLsn, courseService::forEachCourseLocked, studentService::forEachStudentLocked,
+                         enrollmentService::forEachEnrollmentLocked, List.of(), List.of());
+    }
+
+    /**
+     * Write a delta holding the given changed records and removed keys
+     * Loading a delta applies it on top of the state it was taken from
+     */
+    public SnapshotSummary writeDelta(Path file, List<Course> courses, List<Student> students,
+                                      List<Enrollment> enrollments, Collection<String> removedStudentIds,
+                                      Collection<String> removedCourseCodes) throws IOException {
+        return writeFile(file, 0, courses::forEach, students::forEach, enrollments::forEach,
+                         removedStudentIds, removedCourseCodes);
+    }
+
+    /**
+     * The file is written under a temporary name, forced to disk and then moved into place,
+     * so a crash never leaves a half-written file under the final name
+     *
+     * Each record is encoded inside its source's visitor, so a snapshot of live services encodes
+     * every record under that record's lock. A section is encoded into memory before its count is
+     * known, so writing holds one encoded section on the heap at a time
+     */
+    private SnapshotSummary writeFile(Path file, long logLsn, Consumer<Consumer<Course>> courses,
+                                      Consumer<Consumer<Student>> students,
+                                      Consumer<Consumer<Enrollment>> enrollments,
+                                      Collection<String> removedStudentIds,
+                                      Collection<String> removedCourseCodes) throws IOException {
+        long start = System.nanoTime();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = parent.resolve(file.getFileName() + ".tmp");
+
+        RecordCodec codec = new RecordCodec();
+        RecordBuffer record = new RecordBuffer();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        int courseCount;
+        int studentCount;
+        int enrollmentCount;
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(logLsn);
+
+            // Courses first so that their codes and enrolled student IDs seed the dictionary
+            courseCount = writeSection(out, SECTION_COURSES, courses, RecordCodec::writeCourse,
+                                       codec, record, recordOut);
+            studentCount = writeSection(out, SECTION_STUDENTS, students, RecordCodec::writeStudent,
+                                        codec, record, recordOut);
+            enrollmentCount = writeSection(out, SECTION_ENROLLMENTS, enrollments, RecordCodec::writeEnrollment,
+                                           codec, record, recordOut);
+
+            writeKeySection(out, SECTION_REMOVED_STUDENTS, removedStudentIds, codec, record, recordOut);
+            writeKeySection(out, SECTION_REMOVED_COURSES, removedCourseCodes, codec, record, recordOut);
+
+            RecordCodec.writeVarInt(out, SECTION_END);
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return new SnapshotSummary(file, logLsn, studentCount, courseCount, enrollmentCount,
+                                   removedStudentIds.size() + removedCourseCodes.size(),
+                                   Files.size(file), System.nanoTime() - start);
+    }
+
+    /**
+     * Encode every record the source visits, then write the section with its count
+     * Returns the number of records written
+     */
+    private <T> int writeSection(DataOutputStream out, int section, Consumer<Consumer<T>> source,
+                                 RecordEncoder<T> encoder, RecordCodec codec, RecordBuffer record,
+                                 DataOutputStream recordOut) throws IOException {
+        ByteArrayOutputStream sectionBytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        DataOutputStream sectionOut = new DataOutputStream(sectionBytes);
+        int[] count = {0};
+        try {
+            source.accept(value -> {
+                try {
+                    record.reset();
+                    encoder.encode(codec, recordOut, value);
+                    record.writeRecord(sectionOut);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        RecordCodec.writeVarInt(out, section);
+        RecordCodec.writeVarInt(out, count[0]);
+        sectionBytes.writeTo(out);
+        return count[0];
+    }
+
+    @FunctionalInterface
+    private interface RecordEncoder<T> {
+        void encode(RecordCodec codec, DataOutputStream out, T value) throws IOException;
+    }
+
+    private void writeKeySection(DataOutputStream out, int section, Collection<String> keys, RecordCodec codec,
+                                 RecordBuffer record, DataOutputStream recordOut) throws IOException {
+        if (keys.isEmpty()) {
+            return;
+        }
+        RecordCodec.writeVarInt(out, section);
+        RecordCodec.writeVarInt(out, keys.size());
+        for (String key : keys) {
+            record.reset();
+            codec.writeSymbol(recordOut, key);
+            record.writeRecord(out);
+        }
+    }
+
+    /**
+     * Load a snapshot into the services, replacing records with the same keys
+     * Throws IOException if the file is not a snapshot, has an unsupported version,
+     * or fails its checksum; in that case the services are left untouched
+     */
+    public SnapshotSummary loadSnapshot(Path file, StudentService studentService,
+                                        CourseService courseService,
+                                        EnrollmentService enrollmentService) throws IOException {
+        long start = System.nanoTime();
+        long logLsn = 0;
+        List<Course> courses = new ArrayList<>();
+        List<Student> students = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        List<String> removedStudentIds = new ArrayList<>();
+        List<String> removedCourseCodes = new ArrayList<>();
+
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(fileIn, BUFFER_SIZE), new CRC32C());
+            DataInputStream in = new DataInputStream(checked);
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a CCRM snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version > FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            in.readLong(); // Creation time, informational only
+            if (version >= 2) {
+                logLsn = in.readLong();
+            }
+
+            RecordCodec codec = new RecordCodec();
+            RecordInput record = new RecordInput();
+            DataInputStream recordIn = new DataInputStream(record);
+
+            try {
+                int section;
+                while ((section = RecordCodec.readVarInt(in)) != SECTION_END) {
+                    int count = RecordCodec.readVarInt(in);
+                    for (int i = 0; i < count; i++) {
+                        record.readRecord(in);
+                        switch (section) {
+                            case SECTION_COURSES -> courses.add(codec.readCourse(recordIn));
+                            case SECTION_STUDENTS -> students.add(codec.readStudent(recordIn));
+                            case SECTION_ENROLLMENTS -> enrollments.add(codec.readEnrollment(recordIn));
+                            case SECTION_REMOVED_STUDENTS -> removedStudentIds.add(codec.readSymbol(recordIn));
+                            case SECTION_REMOVED_COURSES -> removedCourseCodes.add(codec.readSymbol(recordIn));
+                            default -> throw new IOException("Unknown snapshot section " + section);
+                        }
+                        if (record.available() != 0) {
+                            throw new IOException("Corrupt record: " + record.available() + " trailing bytes");
+                        }
+                    }
+                }
+            } catch (EOFException e) {
+                throw new IOException("Snapshot is truncated: " + file, e);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt snapshot " + file + ": " + e.getMessage(), e);
+            }
+
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+        }
+
+        // Install in date order so the service's date-sorted adjacency lists only ever append
+        enrollments.sort(Comparator.comparing(Enrollment::getEnrollmentDate));
+        MutationBatch.run(() -> {
+            // Courses carry their enrolled student sets; students and enrollments reference them by ID
+            courses.forEach(courseService::restoreCourse);
+            students.forEach(studentService::restoreStudent);
+            enrollments.forEach(enrollmentService::restoreEnrollment);
+            removedStudentIds.forEach(studentService::purgeStudent);
+            removedCourseCodes.forEach(courseService::purgeCourse);
+        });
+
+        return new SnapshotSummary(file, logLsn, students.size(), courses.size(), enrollments.size(),
+                                   removedStudentIds.size() + removedCourseCodes.size(),
+                                   Files.size(file), System.nanoTime() - start);
+    }
+
+    /**
+     * Reusable buffer for encoding one record before its length is known
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(256);
+        }
+
+        void writeRecord(DataOutputStream out) throws IOException {
+            RecordCodec.writeVarInt(out, count);
+            out.write(buf, 0, count);
+        }
+    }
+
+    /**
+     * Reusable input over the bytes of one record
+     */
+    private static class RecordInput extends ByteArrayInputStream {
+        RecordInput() {
+            super(new byte[256]);
+        }
+
+        void readRecord(DataInputStream in) throws IOException {
+            int length = RecordCodec.readVarInt(in);
+            if (length < 0) {
+                throw new IOException("Corrupt record length: " + length);
+            }
+            if (buf.length < length) {
+                buf = new byte[Math.max(length, buf.length * 2)];
+            }
+            in.readFully(buf, 0, length);
+            pos = 0;
+            mark = 0;
+            count = length;
+        }
+    }
+
+    /**
+     * Summary of a snapshot write or load
+     */
+    public static class SnapshotSummary {
+        private final Path file;
+        private final long logLsn;
+        private final int studentCount;
+        private final int courseCount;
+        private final int enrollmentCount;
+        private final int removedCount;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        public SnapshotSummary(Path file, long logLsn, int studentCount, int courseCount, int enrollmentCount,
+                               int removedCount, long bytes, long elapsedNanos) {
+            this.file = file;
+            this.logLsn = logLsn;
+            this.studentCount = studentCount;
+            this.courseCount = courseCount;
+            this.enrollmentCount = enrollmentCount;
+            this.removedCount = removedCount;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Path getFile() { return file; }
+        public long getLogLsn() { return logLsn; }
+        public int getStudentCount() { return studentCount; }
+        public int getCourseCount() { return courseCount; }
+        public int getEnrollmentCount() { return enrollmentCount; }
+        public int getRemovedCount() { return removedCount; }
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return TimeUnit.NANOSECONDS.toMillis(elapsedNanos); }
+
+        public void displaySummary() {
+            System.out.println("\n" + "=".repeat(50));
+            System.out.println("            SNAPSHOT SUMMARY");
+            System.out.println("=".repeat(50));
+            System.out.println("File        : " + file.toAbsolutePath());
+            System.out.println("Students    : " + studentCount);
+            System.out.println("Courses     : " + courseCount);
+            System.out.println("Enrollments : " + enrollmentCount);
+            if (removedCount > 0) {
+                System.out.println("Removed     : " + removedCount);
+            }
+            System.out.println("Log LSN     : " + logLsn);
+            System.out.println("Size        : " + bytes + " bytes");
+            System.out.println("Elapsed     : " + getElapsedMillis() + " ms");
+            System.out.println("=".repeat(50));
+        }
+    }
+}
@@ -0,0 +1,665 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead log of service mutations
+ *
+ * Each change reported by the services becomes one entry:
+ * [int length][int CRC32C][long LSN][byte type][payload], where the length and checksum cover
+ * the LSN, type and payload. Entries are full-record upserts or deletes, so replaying an entry
+ * over state that already contains it is harmless.
+ *
+ * Group commit: appending only copies the entry into an in-memory batch. A single flusher thread
+ * writes the batch and forces it to disk, and the mutating thread waits in afterMutation until its
+ * entry is durable. Writers that arrive while a force is in progress share the next one.
+ * A single thread applying many changes wraps them in a MutationBatch and waits once, for its last entry.
+ *
+ * The log is split into segment files named wal-<first LSN>.log. On recovery a torn entry at the
+ * end of the newest segment is truncated away; damage anywhere else is reported as an error.
+ * Once a checkpoint covers a prefix of the log, truncatePrefix deletes the segments it no longer needs.
+ */
+public class WriteAheadLog implements MutationListener, Closeable {
+    private static final byte STUDENT_CHANGED = 1;
+    private static final byte STUDENT_REMOVED = 2;
+    private static final byte COURSE_CHANGED = 3;
+    private static final byte COURSE_REMOVED = 4;
+    private static final byte ENROLLMENT_CHANGED = 5;
+
+    // [length][crc] precede the checksummed body of [lsn][type][payload]
+    private static final int HEADER_SIZE = 8;
+    private static final int MIN_BODY_SIZE = 9;
+    private static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // Entries are decoded one at a time during replay, so they must not share a dictionary
+    private static final RecordCodec CODEC = new RecordCodec(false);
+
+    private final Path directory;
+    private final long groupCommitMillis;
+    private final long segmentSizeBytes;
+
+    private final ThreadLocal<EntryEncoder> encoders = ThreadLocal.withInitial(EntryEncoder::new);
+    private final ThreadLocal<long[]> lastAppended = ThreadLocal.withInitial(() -> new long[1]);
+
+    // Guarded by this
+    private EntryBuffer pending = new EntryBuffer();
+    private EntryBuffer spare = new EntryBuffer();
+    private long pendingFirstLsn;
+    private long nextLsn = 1;
+    private long durableLsn;
+    private long flushCount;
+    private long bytesAppended;
+    private boolean rollRequested;
+    private IOException failure;
+    private boolean open;
+    private boolean closing;
+
+    // Owned by the flusher thread once the log is open
+    private FileChannel segment;
+    private long segmentSize;
+    private Thread flusher;
+
+    public WriteAheadLog(Path directory, long groupCommitMillis, long segmentSizeBytes) {
+        this.directory = directory;
+        this.groupCommitMillis = groupCommitMillis;
+        this.segmentSizeBytes = segmentSizeBytes;
+    }
+
+    /**
+     * Replay every logged entry into the services, then open the log for appending
+     * and register it as a mutation listener on all three services
+     * Returns the number of entries replayed
+     */
+    public int recover(StudentService studentService, CourseService courseService,
+                       EnrollmentService enrollmentService) throws IOException {
+        return recover(0, studentService, courseService, enrollmentService);
+    }
+
+    /**
+     * Recover on top of a checkpoint: entries up to checkpointLsn are already reflected
+     * in the services and are skipped; the log must continue without a gap after it
+     */
+    public synchronized int recover(long checkpointLsn, StudentService studentService, CourseService courseService,
+                                    EnrollmentService enrollmentService) throws IOException {
+        if (open) {
+            throw new IllegalStateException("Write-ahead log is already open");
+        }
+        Files.createDirectories(directory);
+
+        Replay replay = new Replay(checkpointLsn, studentService, courseService, enrollmentService);
+        List<Path> segments = listSegments();
+        long validLength = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            validLength = replaySegment(segments.get(i), i == segments.size() - 1, replay);
+        }
+
+        if (replay.firstLsn > checkpointLsn + 1) {
+            throw new IOException("Write-ahead log starts at LSN " + replay.firstLsn +
+                " but the checkpoint only covers up to " + checkpointLsn);
+        }
+
+        // Last LSN the log itself accounts for; an empty newest segment still fixes where numbering continues
+        long logLastLsn = replay.lastLsn;
+        if (!segments.isEmpty()) {
+            Path last = segments.get(segments.size() - 1);
+            logLastLsn = Math.max(logLastLsn, segmentFirstLsn(last) - 1);
+            try (FileChannel channel = openSegment(last)) {
+                long fileSize = channel.size();
+                if (validLength < fileSize) {
+                    System.out.println("⚠️  Truncating " + (fileSize - validLength) +
+                        " bytes of incomplete log entries from " + last.getFileName());
+                    channel.truncate(validLength);
+                    channel.force(true);
+                }
+            }
+        }
+
+        if (segments.isEmpty() || checkpointLsn > logLastLsn) {
+            // The checkpoint is ahead of the log, so appending to the old segment would leave a
+            // gap in its numbering; continue in a segment that starts right after the checkpoint
+            segment = openSegment(segmentPath(checkpointLsn + 1));
+            segmentSize = segment.size();
+            syncDirectory();
+        } else {
+            segment = openSegment(segments.get(segments.size() - 1));
+            segmentSize = validLength;
+        }
+        segment.position(segmentSize);
+
+        long lastLsn = Math.max(logLastLsn, checkpointLsn);
+        nextLsn = lastLsn + 1;
+        durableLsn = lastLsn;
+        open = true;
+
+        flusher = new Thread(this::runFlusher, "wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        studentService.addMutationListener(this);
+        courseService.addMutationListener(this);
+        enrollmentService.addMutationListener(this);
+
+        if (replay.applied > 0) {
+            System.out.println("🔄 Replayed " + replay.applied + " log entries from " +
+                segments.size() + " segment(s)");
+        }
+        return replay.applied;
+    }
+
+    /**
+     * Reject a change before the service applies it if the log could not record it
+     */
+    @Override
+    public synchronized void beforeMutation() {
+        if (!open || closing) {
+            throw new IllegalStateException("Write-ahead log is not open");
+        }
+        if (failure != null) {
+            throw new RuntimeException("Write-ahead log failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    @Override
+    public void onStudentChanged(Student student) {
+        EntryEncoder encoder = encoders.get();
+        try {
+            encoder.begin(STUDENT_CHANGED);
+            CODEC.writeStudent(encoder.out, student);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(encoder);
+    }
+
+    @Override
+    public void onStudentRemoved(String studentId) {
+        EntryEncoder encoder = encoders.get();
+        try {
+            encoder.begin(STUDENT_REMOVED);
+            RecordCodec.writeString(encoder.out, studentId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(encoder);
+    }
+
+    @Override
+    public void onCourseChanged(Course course) {
+        EntryEncoder encoder = encoders.get();
+        try {
+            encoder.begin(COURSE_CHANGED);
+            CODEC.writeCourse(encoder.out, course);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(encoder);
+    }
+
+    @Override
+    public void onCourseRemoved(String courseCode) {
+        EntryEncoder encoder = encoders.get();
+        try {
+            encoder.begin(COURSE_REMOVED);
+            RecordCodec.writeString(encoder.out, courseCode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(encoder);
+    }
+
+    @Override
+    public void onEnrollmentChanged(Enrollment enrollment) {
+        EntryEncoder encoder = encoders.get();
+        try {
+            encoder.begin(ENROLLMENT_CHANGED);
+            CODEC.writeEnrollment(encoder.out, enrollment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(encoder);
+    }
+
+    /**
+     * Block until every entry this thread appended is on disk
+     */
+    @Override
+    public void afterMutation() {
+        long[] last = lastAppended.get();
+        long lsn = last[0];
+        if (lsn == 0) {
+            return;
+        }
+        last[0] = 0;
+        awaitDurable(lsn);
+    }
+
+    /**
+     * Block until the entry with the given LSN has been forced to disk
+     */
+    public synchronized void awaitDurable(long lsn) {
+        boolean interrupted = false;
+        while (durableLsn < lsn) {
+            if (lsn >= nextLsn) {
+                throw new IllegalStateException("Write-ahead log closed before the change was logged");
+            }
+            if (failure != null) {
+                throw new RuntimeException("Write-ahead log failed: " + failure.getMessage(), failure);
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Highest LSN assigned so far
+     */
+    public synchronized long getLastLsn() {
+        return nextLsn - 1;
+    }
+
+    public synchronized long getDurableLsn() {
+        return durableLsn;
+    }
+
+    /**
+     * Number of batches forced to disk; appends divided by this is the group commit factor
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Total bytes appended since the log was opened
+     */
+    public synchronized long getBytesAppended() {
+        return bytesAppended;
+    }
+
+    /**
+     * Ask the flusher to start a new segment with its next batch,
+     * so that a checkpoint can later release the current one
+     */
+    public synchronized void requestRoll() {
+        rollRequested = true;
+    }
+
+    /**
+     * Delete segments whose entries are all at or below coveredLsn
+     * The newest segment is never deleted. Returns the number of segments removed.
+     */
+    public int truncatePrefix(long coveredLsn) throws IOException {
+        List<Path> segments = listSegments();
+        int removed = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            // A segment ends just before the next one starts
+            if (segmentFirstLsn(segments.get(i + 1)) - 1 > coveredLsn) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Flush outstanding entries, stop the flusher and close the active segment
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            if (!open || closing) {
+                return;
+            }
+            closing = true;
+            thread = flusher;
+            notifyAll();
+        }
+
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            open = false;
+            segment.close();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Assign the next LSN to an encoded entry and add it to the pending batch
+     * The change is already applied, so this never throws: if the log closed or failed since
+     * beforeMutation, the entry is lost and afterMutation reports it to the caller
+     */
+    private void append(EntryEncoder encoder) {
+        long lsn;
+        synchronized (this) {
+            if (!open || closing) {
+                // No LSN will ever reach this, so waiting for it fails at once
+                lastAppended.get()[0] = Long.MAX_VALUE;
+                return;
+            }
+
+            lsn = nextLsn++;
+            encoder.seal(lsn);
+            bytesAppended += encoder.buffer.size();
+            if (pending.size() == 0) {
+                pendingFirstLsn = lsn;
+                notifyAll();
+            }
+            pending.write(encoder.buffer.array(), 0, encoder.buffer.size());
+        }
+        long[] last = lastAppended.get();
+        last[0] = Math.max(last[0], lsn);
+    }
+
+    private void runFlusher() {
+        try {
+            while (true) {
+                boolean draining;
+                synchronized (this) {
+                    while (pending.size() == 0 && !closing) {
+                        wait();
+                    }
+                    if (pending.size() == 0) {
+                        return;
+                    }
+                    draining = closing;
+                }
+
+                // Give concurrent writers a moment to join this batch
+                if (groupCommitMillis > 0 && !draining) {
+                    Thread.sleep(groupCommitMillis);
+                }
+
+                EntryBuffer batch;
+                long firstLsn;
+                long lastLsn;
+                boolean roll;
+                synchronized (this) {
+                    batch = pending;
+                    pending = spare;
+                    firstLsn = pendingFirstLsn;
+                    lastLsn = nextLsn - 1;
+                    roll = rollRequested;
+                    rollRequested = false;
+                }
+
+                writeBatch(batch, firstLsn, roll);
+
+                synchronized (this) {
+                    batch.reset();
+                    spare = batch;
+                    durableLsn = lastLsn;
+                    flushCount++;
+                    notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                notifyAll();
+            }
+            System.err.println("❌ Write-ahead log failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                failure = new InterruptedIOException("Write-ahead log flusher interrupted");
+                notifyAll();
+            }
+        }
+    }
+
+    private void writeBatch(EntryBuffer batch, long firstLsn, boolean roll) throws IOException {
+        if (segmentSize > 0 && (roll || segmentSize + batch.size() > segmentSizeBytes)) {
+            rollSegment(firstLsn);
+        }
+
+        ByteBuffer buffer = batch.asByteBuffer();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        segment.force(false);
+        segmentSize += batch.size();
+    }
+
+    /**
+     * Close the active segment and start a new one whose first entry is firstLsn
+     */
+    private void rollSegment(long firstLsn) throws IOException {
+        segment.close();
+        segment = openSegment(segmentPath(firstLsn));
+        segmentSize = 0;
+        syncDirectory();
+    }
+
+    /**
+     * Replay one segment, returning the length of its valid prefix
+     * A damaged entry ends replay of the newest segment; in any older segment it is an error
+     */
+    private long replaySegment(Path file, boolean newest, Replay replay) throws IOException {
+        long fileSize = Files.size(file);
+        long offset = 0;
+        CRC32C crc = new CRC32C();
+        byte[] body = new byte[256];
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            while (offset < fileSize) {
+                String problem = null;
+                int length = 0;
+
+                if (fileSize - offset < HEADER_SIZE) {
+                    problem = "incomplete entry header";
+                } else {
+                    length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < MIN_BODY_SIZE || length > MAX_BODY_SIZE ||
+                        length > fileSize - offset - HEADER_SIZE) {
+                        problem = "invalid entry length " + length;
+                    } else {
+                        if (body.length < length) {
+                            body = new byte[Math.max(length, body.length * 2)];
+                        }
+                        in.readFully(body, 0, length);
+                        crc.reset();
+                        crc.update(body, 0, length);
+                        if ((int) crc.getValue() != checksum) {
+                            problem = "checksum mismatch";
+                        }
+                    }
+                }
+
+                if (problem == null) {
+                    long lsn = ByteBuffer.wrap(body, 0, 8).getLong();
+                    // A segment may start after a gap that a checkpoint covers
+                    boolean checkpointGap = offset == 0 && lsn == segmentFirstLsn(file) &&
+                        lsn - 1 <= replay.checkpointLsn;
+                    if (replay.lastLsn != 0 && lsn != replay.lastLsn + 1 && !checkpointGap) {
+                        problem = "expected LSN " + (replay.lastLsn + 1) + " but found " + lsn;
+                    } else {
+                        replay.accept(lsn, body, length);
+                    }
+                }
+
+                if (problem != null) {
+                    if (newest) {
+                        return offset;
+                    }
+                    throw new IOException("Corrupt write-ahead log segment " + file.getFileName() +
+                        " at offset " + offset + ": " + problem);
+                }
+                offset += HEADER_SIZE + length;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Segment files in LSN order
+     */
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> segmentFirstLsn(p) > 0)
+                        .sorted(Comparator.comparingLong(WriteAheadLog::segmentFirstLsn))
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private Path segmentPath(long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * First LSN encoded in a segment file name, or -1 if the file is not a segment
+     */
+    private static long segmentFirstLsn(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static FileChannel openSegment(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+    }
+
+    /**
+     * Make a newly created segment's directory entry durable (best effort; not supported everywhere)
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Directory sync is unavailable on this platform
+        }
+    }
+
+    /**
+     * Applies replayed entries after the checkpoint to the services
+     */
+    private static class Replay {
+        private final long checkpointLsn;
+        private final StudentService studentService;
+        private final CourseService courseService;
+        private final EnrollmentService enrollmentService;
+        private long firstLsn;
+        private long lastLsn;
+        private int applied;
+
+        Replay(long checkpointLsn, StudentService studentService, CourseService courseService,
+               EnrollmentService enrollmentService) {
+            this.checkpointLsn = checkpointLsn;
+            this.studentService = studentService;
+            this.courseService = courseService;
+            this.enrollmentService = enrollmentService;
+        }
+
+        void accept(long lsn, byte[] body, int length) throws IOException {
+            if (firstLsn == 0) {
+                firstLsn = lsn;
+            }
+            if (lsn > checkpointLsn) {
+                apply(lsn, body, length);
+            }
+            lastLsn = lsn;
+        }
+
+        private void apply(long lsn, byte[] body, int length) throws IOException {
+            DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(body, MIN_BODY_SIZE, length - MIN_BODY_SIZE));
+            byte type = body[8];
+            try {
+                switch (type) {
+                    case STUDENT_CHANGED -> studentService.restoreStudent(CODEC.readStudent(in));
+                    case STUDENT_REMOVED -> studentService.purgeStudent(RecordCodec.readString(in));
+                    case COURSE_CHANGED -> courseService.restoreCourse(CODEC.readCourse(in));
+                    case COURSE_REMOVED -> courseService.purgeCourse(RecordCodec.readString(in));
+                    case ENROLLMENT_CHANGED -> enrollmentService.restoreEnrollment(CODEC.readEnrollment(in));
+                    default -> throw new IOException("Unknown log entry type " + type + " at LSN " + lsn);
+                }
+            } catch (EOFException | RuntimeException e) {
+                throw new IOException("Corrupt log entry at LSN " + lsn + ": " + e.getMessage(), e);
+            }
+            applied++;
+        }
+    }
+
+    /**
+     * Per-thread scratch space for encoding one entry outside the log lock
+     */
+    private static class EntryEncoder {
+        private final EntryBuffer buffer = new EntryBuffer();
+        private final DataOutputStream out = new DataOutputStream(buffer);
+        private final CRC32C crc = new CRC32C();
+
+        void begin(byte type) throws IOException {
+            buffer.reset();
+            out.writeInt(0);    // Body length, filled in by seal
+            out.writeInt(0);    // Checksum, filled in by seal
+            out.writeLong(0);   // LSN, filled in by seal
+            out.writeByte(type);
+        }
+
+        void seal(long lsn) {
+            byte[] bytes = buffer.array();
+            int length = buffer.size() - HEADER_SIZE;
+            ByteBuffer header = ByteBuffer.wrap(bytes);
+            header.putLong(HEADER_SIZE, lsn);
+            crc.reset();
+            crc.update(bytes, HEADER_SIZE, length);
+            header.putInt(0, length);
+            header.putInt(4, (int) crc.getValue());
+        }
+    }
+
+    /**
+     * Growable byte buffer exposing its backing array to avoid copies
+     */
+    private static class EntryBuffer extends ByteArrayOutputStream {
+        EntryBuffer() {
+            super(4096);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
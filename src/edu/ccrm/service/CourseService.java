@@ -1,36 +1,95 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.PrefixIndex;
+import edu.ccrm.util.StripedLock;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Course Service class handling all course-related business logic
  * Fixed version without circular dependencies
+ * Safe for concurrent use: mutations of the same course code are serialized by a striped lock
  */
 public class CourseService {
     private final Map<String, Course> courses;
-    private final Map<String, Set<String>> departmentCourses;
+    private static final int MAX_CREDITS = 10;
+    // A title word counts this many times towards a course's term frequency
+    private static final int TITLE_WEIGHT = 2;
+
+    // Secondary indexes: attribute -> course codes, each kept in code order
+    private final Map<String, NavigableSet<String>> departmentCourses;
+    private final Map<Semester, NavigableSet<String>> semesterCourses;
+    private final Map<String, NavigableSet<String>> instructorCourses;
+    private final NavigableSet<String>[] creditCourses;
+    // Courses with a free seat, updated as seats are taken and released
+    private final NavigableSet<String> availableCourses;
+    // Inverted index: title/description term -> course code -> weighted term frequency;
+    // terms are sorted so a prefix is a range of the map
+    private final NavigableMap<String, Map<String, Integer>> termPostings;
+    // Autocomplete over course codes
+    private final PrefixIndex codePrefixes;
+    private final Course.CapacityListener capacityListener;
+    private final StripedLock courseLocks;
+    // Guards adding to a term's posting map and dropping the term once its map is empty
+    private final StripedLock termLocks;
+    private final List<MutationListener> listeners;
+    private final StatisticsAccumulator statistics;
 
     public CourseService() {
-        this.courses = new HashMap<>();
-        this.departmentCourses = new HashMap<>();
+        this.courses = new ConcurrentHashMap<>();
+        this.departmentCourses = new ConcurrentHashMap<>();
+        // Every semester gets its set up front, so the EnumMap itself is never modified
+        this.semesterCourses = new EnumMap<>(Semester.class);
+        for (Semester semester : Semester.values()) {
+            semesterCourses.put(semester, new ConcurrentSkipListSet<>());
+        }
+        this.instructorCourses = new ConcurrentHashMap<>();
+        this.creditCourses = newCreditIndex();
+        this.availableCourses = new ConcurrentSkipListSet<>();
+        this.termPostings = new ConcurrentSkipListMap<>();
+        this.codePrefixes = new PrefixIndex();
+        this.capacityListener = this::updateAvailability;
+        this.courseLocks = new StripedLock(64);
+        this.termLocks = new StripedLock(64);
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.statistics = new StatisticsAccumulator();
+    }
+
+    /**
+     * Register a listener for committed course changes
+     */
+    public void addMutationListener(MutationListener listener) {
+        listeners.add(listener);
     }
 
     /**
      * Add a new course using Builder pattern
      */
     public void addCourse(Course course) {
-        if (courses.containsKey(course.getCode())) {
-            throw new RuntimeException("Course with code " + course.getCode() + " already exists");
-        }
-
         validateCourse(course);
-        courses.put(course.getCode(), course);
 
-        // Add to department mapping
-        departmentCourses.computeIfAbsent(course.getDepartment(), k -> new HashSet<>())
-                         .add(course.getCode());
+        Lock lock = courseLocks.lockFor(course.getCode());
+        lock.lock();
+        try {
+            if (courses.containsKey(course.getCode())) {
+                throw new RuntimeException("Course with code " + course.getCode() + " already exists");
+            }
+            listeners.forEach(MutationListener::beforeMutation);
+
+            courses.put(course.getCode(), course);
+            reindex(null, course);
+            listeners.forEach(l -> l.onCourseChanged(course));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
 
         System.out.println("✅ Course added successfully: " + course.getCode() + " - " + course.getTitle());
     }
@@ -56,6 +115,25 @@ public class CourseService {
         return new ArrayList<>(courses.values());
     }
 
+    /**
+     * Visit every course while holding its lock, so the visitor never sees a half-applied change
+     * The visitor must be quick and must not call back into the service
+     */
+    public void forEachCourseLocked(Consumer<Course> visitor) {
+        for (String courseCode : new ArrayList<>(courses.keySet())) {
+            Lock lock = courseLocks.lockFor(courseCode);
+            lock.lock();
+            try {
+                Course course = courses.get(courseCode);
+                if (course != null) {
+                    visitor.accept(course);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
     /**
      * Find course by code
      */
@@ -64,86 +142,115 @@ public class CourseService {
     }
 
     /**
-     * Search courses by title (partial match)
+     * Course codes starting with the prefix (case-insensitive), at most limit of them
+     */
+    public List<String> completeCourseCodes(String prefix, int limit) {
+        return codePrefixes.complete(prefix, limit);
+    }
+
+    /**
+     * Search courses by title and description through the term index
+     * Every query word must prefix some word of the course ("intro prog" finds
+     * "Introduction to Programming"). Results are ranked by the weighted frequency of the
+     * matched terms, with title words counting double, then by title.
      */
     public List<Course> searchCoursesByTitle(String title) {
         if (title == null || title.trim().isEmpty()) {
             return new ArrayList<>();
         }
 
-        return courses.values().stream()
-                .filter(c -> c.getTitle().toLowerCase().contains(title.toLowerCase()))
-                .sorted(Comparator.comparing(Course::getTitle))
-                .collect(Collectors.toList());
+        Set<String> prefixes = new HashSet<>(tokenize(title));
+        if (prefixes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Integer> scores = null;
+        for (String prefix : prefixes) {
+            Map<String, Integer> matches = new HashMap<>();
+            for (Map<String, Integer> posting : termPostings.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                for (Map.Entry<String, Integer> entry : posting.entrySet()) {
+                    // After the first word, only courses that matched every earlier word stay in
+                    Integer score = scores == null ? Integer.valueOf(0) : scores.get(entry.getKey());
+                    if (score != null) {
+                        Integer sum = matches.get(entry.getKey());
+                        matches.put(entry.getKey(), (sum == null ? score : sum) + entry.getValue());
+                    }
+                }
+            }
+            scores = matches;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        Map<String, Integer> ranked = scores;
+        List<Course> result = resolve(ranked.keySet());
+        result.sort(Comparator.comparing((Course c) -> ranked.get(c.getCode())).reversed()
+                              .thenComparing(Course::getTitle)
+                              .thenComparing(Course::getCode));
+        return result;
     }
 
     /**
-     * Get courses by department
+     * Get courses by department, in code order, through the department index
      */
     public List<Course> getCoursesByDepartment(String department) {
-        return courses.values().stream()
-                .filter(c -> department.equals(c.getDepartment()))
-                .sorted(Comparator.comparing(Course::getCode))
-                .collect(Collectors.toList());
+        return department == null ? new ArrayList<>() : resolve(departmentCourses.get(department));
     }
 
     /**
-     * Get courses by semester
+     * Get courses by semester, in code order, through the semester index
      */
     public List<Course> getCoursesBySemester(Semester semester) {
-        return courses.values().stream()
-                .filter(c -> c.getSemester() == semester)
-                .collect(Collectors.toList());
+        return semester == null ? new ArrayList<>() : resolve(semesterCourses.get(semester));
     }
 
     /**
-     * Get courses by instructor
+     * Get courses by instructor, in code order, through the instructor index
      */
     public List<Course> getCoursesByInstructor(String instructor) {
-        return courses.values().stream()
-                .filter(c -> instructor.equals(c.getInstructor()))
-                .collect(Collectors.toList());
+        return instructor == null ? new ArrayList<>() : resolve(instructorCourses.get(instructor));
     }
 
     /**
-     * Get courses by credit hours
+     * Get courses by credit hours, in code order, through the credits index
      */
     public List<Course> getCoursesByCredits(int credits) {
-        return courses.values().stream()
-                .filter(c -> c.getCredits() == credits)
-                .collect(Collectors.toList());
+        if (credits < 0 || credits > MAX_CREDITS) {
+            return new ArrayList<>();
+        }
+        return resolve(creditCourses[credits]);
     }
 
     /**
-     * Get available courses (not full)
+     * Get available courses (not full), in code order, from the live availability set
      */
     public List<Course> getAvailableCourses() {
-        return courses.values().stream()
-                .filter(c -> !c.isFull())
-                .sorted(Comparator.comparing(Course::getCode))
-                .collect(Collectors.toList());
+        return resolve(availableCourses);
     }
 
     /**
      * Update course information
      */
     public void updateCourse(Course updatedCourse) {
-        if (!courses.containsKey(updatedCourse.getCode())) {
-            throw new RuntimeException("Course with code " + updatedCourse.getCode() + " not found");
-        }
-
         validateCourse(updatedCourse);
 
-        Course oldCourse = courses.get(updatedCourse.getCode());
-
-        // Update department mapping if department changed
-        if (!oldCourse.getDepartment().equals(updatedCourse.getDepartment())) {
-            departmentCourses.get(oldCourse.getDepartment()).remove(oldCourse.getCode());
-            departmentCourses.computeIfAbsent(updatedCourse.getDepartment(), k -> new HashSet<>())
-                             .add(updatedCourse.getCode());
+        Lock lock = courseLocks.lockFor(updatedCourse.getCode());
+        lock.lock();
+        try {
+            Course oldCourse = courses.get(updatedCourse.getCode());
+            if (oldCourse == null) {
+                throw new RuntimeException("Course with code " + updatedCourse.getCode() + " not found");
+            }
+            listeners.forEach(MutationListener::beforeMutation);
+
+            courses.put(updatedCourse.getCode(), updatedCourse);
+            reindex(oldCourse, updatedCourse);
+            listeners.forEach(l -> l.onCourseChanged(updatedCourse));
+        } finally {
+            lock.unlock();
         }
-
-        courses.put(updatedCourse.getCode(), updatedCourse);
+        MutationBatch.afterMutation(listeners);
         System.out.println("✅ Course updated successfully: " + updatedCourse.getCode());
     }
 
@@ -151,48 +258,260 @@ public class CourseService {
      * Delete course by code
      */
     public boolean deleteCourse(String courseCode) {
-        Course course = courses.get(courseCode);
-        if (course == null) {
-            throw new RuntimeException("Course with code " + courseCode + " not found");
-        }
-
-        // Check if course has enrolled students
-        if (!course.getEnrolledStudents().isEmpty()) {
-            throw new IllegalStateException("Cannot delete course with enrolled students. " +
-                "Current enrollment: " + course.getEnrolledStudents().size());
+        Course course;
+        Lock lock = courseLocks.lockFor(courseCode);
+        lock.lock();
+        try {
+            course = courses.get(courseCode);
+            if (course == null) {
+                throw new RuntimeException("Course with code " + courseCode + " not found");
+            }
+
+            // Check if course has enrolled students
+            if (!course.getEnrolledStudents().isEmpty()) {
+                throw new IllegalStateException("Cannot delete course with enrolled students. " +
+                    "Current enrollment: " + course.getEnrolledStudents().size());
+            }
+            listeners.forEach(MutationListener::beforeMutation);
+
+            courses.remove(courseCode);
+            reindex(course, null);
+            listeners.forEach(l -> l.onCourseRemoved(courseCode));
+        } finally {
+            lock.unlock();
         }
-
-        courses.remove(courseCode);
-        departmentCourses.get(course.getDepartment()).remove(courseCode);
+        MutationBatch.afterMutation(listeners);
 
         System.out.println("✅ Course deleted successfully: " + course.getTitle());
         return true;
     }
 
+    /**
+     * Install a persisted course directly, replacing any course with the same code
+     * Skips validation and console output; used when loading a snapshot
+     */
+    public void restoreCourse(Course course) {
+        Lock lock = courseLocks.lockFor(course.getCode());
+        lock.lock();
+        try {
+            listeners.forEach(MutationListener::beforeMutation);
+            Course previous = courses.put(course.getCode(), course);
+            reindex(previous, course);
+            listeners.forEach(l -> l.onCourseChanged(course));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
+    }
+
+    /**
+     * Remove a course without checks or console output; does nothing if the code is unknown
+     * Used when replaying a logged delete
+     */
+    public void purgeCourse(String courseCode) {
+        Lock lock = courseLocks.lockFor(courseCode);
+        lock.lock();
+        try {
+            Course course = courses.get(courseCode);
+            if (course == null) {
+                return;
+            }
+            listeners.forEach(MutationListener::beforeMutation);
+            courses.remove(courseCode);
+            reindex(course, null);
+            listeners.forEach(l -> l.onCourseRemoved(courseCode));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
+    }
+
     /**
      * Get course statistics
+     * Served from counters kept up to date on every change, so the cost does not grow with the catalog
      */
     public CourseStatistics getCourseStatistics() {
-        if (courses.isEmpty()) {
-            return new CourseStatistics(0, 0.0, new HashMap<>(), new HashMap<>(), new HashMap<>());
+        return statistics.snapshot();
+    }
+
+    /**
+     * Move the indexes and statistics from the previous version of a course to the current one
+     * Caller must hold the course's lock; either side may be null for an add or a removal
+     */
+    private void reindex(Course previous, Course current) {
+        if (previous != null) {
+            previous.setCapacityListener(null);
+            String code = previous.getCode();
+            removeFrom(departmentCourses.get(previous.getDepartment()), code);
+            removeFrom(semesterCourses.get(previous.getSemester()), code);
+            if (previous.getInstructor() != null) {
+                removeFrom(instructorCourses.get(previous.getInstructor()), code);
+            }
+            removeFrom(creditSet(previous.getCredits()), code);
+            availableCourses.remove(code);
+        }
+        if (previous == null) {
+            codePrefixes.add(current.getCode());
+        } else if (current == null) {
+            codePrefixes.remove(previous.getCode());
         }
+        // Titles and descriptions are fixed per Course object, so unchanged text needs no term updates
+        boolean textChanged = previous == null || current == null ||
+            !previous.getTitle().equals(current.getTitle()) ||
+            !Objects.equals(previous.getDescription(), current.getDescription());
+        if (previous != null && textChanged) {
+            for (String term : termFrequencies(previous).keySet()) {
+                removePosting(term, previous.getCode());
+            }
+        }
+        if (current != null && textChanged) {
+            String code = current.getCode();
+            termFrequencies(current).forEach((term, frequency) -> addPosting(term, code, frequency));
+        }
+        if (current != null) {
+            String code = current.getCode();
+            departmentCourses.computeIfAbsent(current.getDepartment(), k -> new ConcurrentSkipListSet<>()).add(code);
+            if (current.getSemester() != null) {
+                semesterCourses.get(current.getSemester()).add(code);
+            }
+            if (current.getInstructor() != null) {
+                instructorCourses.computeIfAbsent(current.getInstructor(), k -> new ConcurrentSkipListSet<>()).add(code);
+            }
+            NavigableSet<String> credits = creditSet(current.getCredits());
+            if (credits != null) {
+                credits.add(code);
+            }
+            current.setCapacityListener(capacityListener);
+            if (!current.isFull()) {
+                availableCourses.add(code);
+            }
+        }
+        statistics.replace(previous, current);
+    }
 
-        double averageCredits = courses.values().stream()
-                .mapToInt(Course::getCredits)
-                .average()
-                .orElse(0.0);
+    /**
+     * Capacity callback from a stored course; the check runs under the course lock,
+     * so the last callback to get the lock sees the final seat count
+     */
+    private void updateAvailability(Course course) {
+        Lock lock = courseLocks.lockFor(course.getCode());
+        lock.lock();
+        try {
+            if (courses.get(course.getCode()) != course) {
+                return;
+            }
+            if (course.isFull()) {
+                availableCourses.remove(course.getCode());
+            } else {
+                availableCourses.add(course.getCode());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        Map<String, Long> departmentCounts = courses.values().stream()
-                .collect(Collectors.groupingBy(Course::getDepartment, Collectors.counting()));
+    /**
+     * Look up indexed codes; a code whose course was just removed is skipped
+     */
+    private List<Course> resolve(Collection<String> codes) {
+        if (codes == null) {
+            return new ArrayList<>();
+        }
 
-        Map<Semester, Long> semesterCounts = courses.values().stream()
-                .collect(Collectors.groupingBy(Course::getSemester, Collectors.counting()));
+        List<Course> result = new ArrayList<>();
+        for (String code : codes) {
+            Course course = courses.get(code);
+            if (course != null) {
+                result.add(course);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Weighted term frequencies of a course's title and description
+     */
+    private static Map<String, Integer> termFrequencies(Course course) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(course.getTitle())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(course.getDescription())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
 
-        Map<Integer, Long> creditDistribution = courses.values().stream()
-                .collect(Collectors.groupingBy(Course::getCredits, Collectors.counting()));
+    /**
+     * Lower-cased runs of letters and digits
+     */
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
 
-        return new CourseStatistics(courses.size(), averageCredits, departmentCounts, 
-                                  semesterCounts, creditDistribution);
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private NavigableSet<String> creditSet(int credits) {
+        return credits >= 0 && credits <= MAX_CREDITS ? creditCourses[credits] : null;
+    }
+
+    private void addPosting(String term, String code, int frequency) {
+        Lock lock = termLocks.lockFor(term);
+        lock.lock();
+        try {
+            termPostings.computeIfAbsent(term, k -> new ConcurrentHashMap<>()).put(code, frequency);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a course from a term's postings, and the term itself once no course uses it,
+     * so term and prefix scans never walk dead keys
+     */
+    private void removePosting(String term, String code) {
+        Lock lock = termLocks.lockFor(term);
+        lock.lock();
+        try {
+            Map<String, Integer> posting = termPostings.get(term);
+            if (posting != null) {
+                posting.remove(code);
+                if (posting.isEmpty()) {
+                    termPostings.remove(term);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void removeFrom(Set<String> codes, String code) {
+        if (codes != null) {
+            codes.remove(code);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static NavigableSet<String>[] newCreditIndex() {
+        NavigableSet<String>[] index = new NavigableSet[MAX_CREDITS + 1];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = new ConcurrentSkipListSet<>();
+        }
+        return index;
     }
 
     /**
@@ -207,7 +526,7 @@ public class CourseService {
             throw new IllegalArgumentException("Course title cannot be empty");
         }
 
-        if (course.getCredits() <= 0 || course.getCredits() > 10) {
+        if (course.getCredits() <= 0 || course.getCredits() > MAX_CREDITS) {
             throw new IllegalArgumentException("Course credits must be between 1 and 10");
         }
 
@@ -241,6 +560,47 @@ public class CourseService {
                 .forEach(Course::displayInfo);
     }
 
+    /**
+     * Running totals behind getCourseStatistics
+     * One monitor keeps the count, credit sum and distributions consistent with each other
+     */
+    private static class StatisticsAccumulator {
+        private int totalCourses;
+        private long creditSum;
+        private final Map<String, Long> departmentCounts = new HashMap<>();
+        private final Map<Semester, Long> semesterCounts = new EnumMap<>(Semester.class);
+        private final Map<Integer, Long> creditCounts = new HashMap<>();
+
+        synchronized void replace(Course previous, Course current) {
+            if (previous != null) {
+                totalCourses--;
+                creditSum -= previous.getCredits();
+                decrement(departmentCounts, previous.getDepartment());
+                decrement(semesterCounts, previous.getSemester());
+                decrement(creditCounts, previous.getCredits());
+            }
+            if (current != null) {
+                totalCourses++;
+                creditSum += current.getCredits();
+                departmentCounts.merge(current.getDepartment(), 1L, Long::sum);
+                semesterCounts.merge(current.getSemester(), 1L, Long::sum);
+                creditCounts.merge(current.getCredits(), 1L, Long::sum);
+            }
+        }
+
+        synchronized CourseStatistics snapshot() {
+            if (totalCourses == 0) {
+                return new CourseStatistics(0, 0.0, new HashMap<>(), new HashMap<>(), new HashMap<>());
+            }
+            return new CourseStatistics(totalCourses, (double) creditSum / totalCourses, departmentCounts,
+                                        semesterCounts, creditCounts);
+        }
+
+        private static <K> void decrement(Map<K, Long> counts, K key) {
+            counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
     /**
      * Inner class for course statistics
      */
@@ -1,36 +1,85 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.IdDictionary;
+import edu.ccrm.util.LongObjectHashMap;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Simple Enrollment Service without complex dependencies
  * Manages student-course enrollments with basic functionality
+ * Safe for concurrent use: enrollments are partitioned into lock stripes by student,
+ * and each course's enrollment list is guarded by its own monitor
  */
 public class EnrollmentService {
-    private final Map<String, Enrollment> enrollments;
-    private int enrollmentCounter;
+    private static final int STRIPE_COUNT = 64;
+
+    private final Stripe[] stripes;
+    private final IdDictionary studentIds;
+    private final IdDictionary courseCodes;
+    // Course adjacency index, each list kept sorted by enrollment date
+    private final Map<String, List<Enrollment>> enrollmentsByCourse;
+    private final AtomicInteger enrollmentCounter;
+    private final List<MutationListener> listeners;
 
     public EnrollmentService() {
-        this.enrollments = new HashMap<>();
-        this.enrollmentCounter = 1000;
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.studentIds = new IdDictionary();
+        this.courseCodes = new IdDictionary();
+        this.enrollmentsByCourse = new ConcurrentHashMap<>();
+        this.enrollmentCounter = new AtomicInteger(1000);
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Register a listener for committed enrollment changes
+     */
+    public void addMutationListener(MutationListener listener) {
+        listeners.add(listener);
     }
 
     /**
      * Enroll student in a course (simplified version)
      */
     public void enrollStudent(String studentId, String courseCode) {
-        // Check for duplicate enrollment
-        String enrollmentKey = studentId + "-" + courseCode;
-        if (enrollments.containsKey(enrollmentKey)) {
-            throw new RuntimeException("Student already enrolled in this course");
-        }
+        int studentIndex = studentIds.encode(studentId);
+        long enrollmentKey = IdDictionary.pack(studentIndex, courseCodes.encode(courseCode));
+        Stripe stripe = stripeFor(studentIndex);
+
+        stripe.lock.lock();
+        try {
+            // Check for duplicate enrollment
+            if (stripe.enrollments.containsKey(enrollmentKey)) {
+                throw new RuntimeException("Student already enrolled in this course");
+            }
+            listeners.forEach(MutationListener::beforeMutation);
 
-        // Create enrollment
-        String enrollmentId = "ENR" + (enrollmentCounter++);
-        Enrollment enrollment = new Enrollment(enrollmentId, studentId, courseCode);
-        enrollments.put(enrollmentKey, enrollment);
+            // Create enrollment
+            String enrollmentId = "ENR" + enrollmentCounter.getAndIncrement();
+            Enrollment enrollment = new Enrollment(enrollmentId, studentId, courseCode);
+            stripe.enrollments.put(enrollmentKey, enrollment);
+            insertByDate(stripe.enrollmentsByStudent.computeIfAbsent(studentId, k -> new ArrayList<>()),
+                         enrollment);
+
+            // Lock order is always student stripe, then course list
+            List<Enrollment> courseList = enrollmentsByCourse.computeIfAbsent(courseCode, k -> new ArrayList<>());
+            synchronized (courseList) {
+                insertByDate(courseList, enrollment);
+            }
+            listeners.forEach(l -> l.onEnrollmentChanged(enrollment));
+        } finally {
+            stripe.lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
 
         System.out.println("✅ Student " + studentId + " enrolled in course " + courseCode);
     }
@@ -39,15 +88,28 @@ public class EnrollmentService {
      * Unenroll student from course
      */
     public void unenrollStudent(String studentId, String courseCode, String reason) {
-        String enrollmentKey = studentId + "-" + courseCode;
-        Enrollment enrollment = enrollments.get(enrollmentKey);
-
-        if (enrollment == null) {
+        Stripe stripe = stripeFor(studentId);
+        if (stripe == null) {
             throw new RuntimeException("Enrollment not found for student " + 
                 studentId + " in course " + courseCode);
         }
 
-        enrollment.dropEnrollment(reason);
+        stripe.lock.lock();
+        try {
+            Enrollment enrollment = findEnrollment(stripe, studentId, courseCode);
+
+            if (enrollment == null) {
+                throw new RuntimeException("Enrollment not found for student " + 
+                    studentId + " in course " + courseCode);
+            }
+
+            listeners.forEach(MutationListener::beforeMutation);
+            enrollment.dropEnrollment(reason);
+            listeners.forEach(l -> l.onEnrollmentChanged(enrollment));
+        } finally {
+            stripe.lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
         System.out.println("✅ Student unenrolled from " + courseCode + ". Reason: " + reason);
     }
 
@@ -55,51 +117,239 @@ public class EnrollmentService {
      * Assign grade to student for a course
      */
     public void assignGrade(String studentId, String courseCode, Grade grade) {
-        String enrollmentKey = studentId + "-" + courseCode;
-        Enrollment enrollment = enrollments.get(enrollmentKey);
-
-        if (enrollment == null) {
+        Stripe stripe = stripeFor(studentId);
+        if (stripe == null) {
             throw new RuntimeException("Enrollment not found");
         }
 
-        if (!enrollment.isActive()) {
-            throw new RuntimeException("Cannot assign grade to inactive enrollment");
-        }
+        stripe.lock.lock();
+        try {
+            Enrollment enrollment = findEnrollment(stripe, studentId, courseCode);
+
+            if (enrollment == null) {
+                throw new RuntimeException("Enrollment not found");
+            }
 
-        enrollment.assignGrade(grade);
+            if (!enrollment.isActive()) {
+                throw new RuntimeException("Cannot assign grade to inactive enrollment");
+            }
+            listeners.forEach(MutationListener::beforeMutation);
+
+            enrollment.assignGrade(grade);
+            listeners.forEach(l -> l.onEnrollmentChanged(enrollment));
+        } finally {
+            stripe.lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
         System.out.println("✅ Grade " + grade.name() + " assigned to student " + 
             studentId + " for course " + courseCode);
     }
 
+    /**
+     * Install a persisted enrollment directly, replacing any enrollment for the same student and course
+     * Skips console output; used when loading a snapshot. New enrollment IDs continue after the restored ones.
+     */
+    public void restoreEnrollment(Enrollment enrollment) {
+        String studentId = enrollment.getStudentId();
+        String courseCode = enrollment.getCourseCode();
+        int studentIndex = studentIds.encode(studentId);
+        long enrollmentKey = IdDictionary.pack(studentIndex, courseCodes.encode(courseCode));
+        Stripe stripe = stripeFor(studentIndex);
+
+        stripe.lock.lock();
+        try {
+            listeners.forEach(MutationListener::beforeMutation);
+            Enrollment previous = stripe.enrollments.put(enrollmentKey, enrollment);
+
+            List<Enrollment> studentList = stripe.enrollmentsByStudent.computeIfAbsent(studentId, k -> new ArrayList<>());
+            if (previous != null) {
+                studentList.removeIf(e -> e == previous);
+            }
+            insertByDate(studentList, enrollment);
+
+            List<Enrollment> courseList = enrollmentsByCourse.computeIfAbsent(courseCode, k -> new ArrayList<>());
+            synchronized (courseList) {
+                if (previous != null) {
+                    courseList.removeIf(e -> e == previous);
+                }
+                insertByDate(courseList, enrollment);
+            }
+            reserveEnrollmentId(enrollment.getEnrollmentId());
+            listeners.forEach(l -> l.onEnrollmentChanged(enrollment));
+        } finally {
+            stripe.lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
+    }
+
+    /**
+     * Move the ID counter past a restored "ENR<n>" ID so new enrollments never reuse it
+     */
+    private void reserveEnrollmentId(String enrollmentId) {
+        if (enrollmentId == null || !enrollmentId.startsWith("ENR")) {
+            return;
+        }
+        try {
+            int number = Integer.parseInt(enrollmentId.substring(3));
+            enrollmentCounter.accumulateAndGet(number + 1, Math::max);
+        } catch (NumberFormatException e) {
+            // Not a generated ID; nothing to reserve
+        }
+    }
+
+    /**
+     * Look up an enrollment without registering unknown IDs in the dictionaries
+     * Caller must hold the stripe lock
+     */
+    private Enrollment findEnrollment(Stripe stripe, String studentId, String courseCode) {
+        int studentIndex = studentIds.lookup(studentId);
+        int courseIndex = courseCodes.lookup(courseCode);
+        if (studentIndex == IdDictionary.NOT_FOUND || courseIndex == IdDictionary.NOT_FOUND) {
+            return null;
+        }
+        return stripe.enrollments.get(IdDictionary.pack(studentIndex, courseIndex));
+    }
+
     /**
      * Get all enrollments for a student
      */
     public List<Enrollment> getStudentEnrollments(String studentId) {
-        return enrollments.values().stream()
-                .filter(e -> e.getStudentId().equals(studentId))
-                .sorted(Comparator.comparing(Enrollment::getEnrollmentDate))
-                .collect(Collectors.toList());
+        Stripe stripe = stripeFor(studentId);
+        if (stripe == null) {
+            return new ArrayList<>();
+        }
+
+        stripe.lock.lock();
+        try {
+            List<Enrollment> studentEnrollments = stripe.enrollmentsByStudent.get(studentId);
+            return studentEnrollments == null ? new ArrayList<>() : new ArrayList<>(studentEnrollments);
+        } finally {
+            stripe.lock.unlock();
+        }
     }
 
     /**
      * Get all enrollments for a course
      */
     public List<Enrollment> getCourseEnrollments(String courseCode) {
-        return enrollments.values().stream()
-                .filter(e -> e.getCourseCode().equals(courseCode))
-                .sorted(Comparator.comparing(Enrollment::getEnrollmentDate))
-                .collect(Collectors.toList());
+        List<Enrollment> courseEnrollments = enrollmentsByCourse.get(courseCode);
+        if (courseEnrollments == null) {
+            return new ArrayList<>();
+        }
+
+        synchronized (courseEnrollments) {
+            return new ArrayList<>(courseEnrollments);
+        }
+    }
+
+    /**
+     * Post grades for many students of one course, waiting for durability once for the whole set
+     * Returns the students whose grade could not be posted, mapped to the reason
+     */
+    public Map<String, String> postGrades(String courseCode, Map<String, Grade> gradesByStudent) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        MutationBatch.run(() -> gradesByStudent.forEach((studentId, grade) -> {
+            try {
+                assignGrade(studentId, courseCode, grade);
+            } catch (RuntimeException e) {
+                failures.put(studentId, e.getMessage());
+            }
+        }));
+        return failures;
     }
 
     /**
      * Get active enrollments only
      */
     public List<Enrollment> getActiveEnrollments() {
-        return enrollments.values().stream()
+        return getAllEnrollments().stream()
                 .filter(Enrollment::isActive)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get all enrollments, collected stripe by stripe
+     */
+    public List<Enrollment> getAllEnrollments() {
+        List<Enrollment> result = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.enrollments.forEachValue(result::add);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visit every enrollment while holding its stripe lock, so the visitor never sees a half-applied change
+     * The visitor must be quick and must not call back into the service
+     */
+    public void forEachEnrollmentLocked(Consumer<Enrollment> visitor) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.enrollments.forEachValue(visitor);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Get total number of enrollments
+     */
+    public int getTotalEnrollmentCount() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.enrollments.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Insert enrollment into an adjacency list, keeping it sorted by enrollment date.
+     * New enrollments are almost always the latest, so the scan starts from the tail.
+     */
+    private void insertByDate(List<Enrollment> list, Enrollment enrollment) {
+        int position = list.size();
+        while (position > 0 && 
+               list.get(position - 1).getEnrollmentDate().isAfter(enrollment.getEnrollmentDate())) {
+            position--;
+        }
+        list.add(position, enrollment);
+    }
+
+    private Stripe stripeFor(int studentIndex) {
+        return stripes[studentIndex & (STRIPE_COUNT - 1)];
+    }
+
+    /**
+     * Stripe for a student ID, or null if the student has never been enrolled
+     */
+    private Stripe stripeFor(String studentId) {
+        int studentIndex = studentIds.lookup(studentId);
+        return studentIndex == IdDictionary.NOT_FOUND ? null : stripeFor(studentIndex);
+    }
+
+    /**
+     * Lock stripe owning the enrollments of every student whose code maps to it
+     */
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Enrollments keyed by packed (student code, course code)
+        private final LongObjectHashMap<Enrollment> enrollments = new LongObjectHashMap<>();
+        // Student adjacency index, each list kept sorted by enrollment date
+        private final Map<String, List<Enrollment>> enrollmentsByStudent = new HashMap<>();
+    }
+
     /**
      * Generate simple transcript for a student
      */
@@ -132,6 +382,7 @@ public class EnrollmentService {
      * Display all enrollments
      */
     public void displayAllEnrollments() {
+        List<Enrollment> enrollments = getAllEnrollments();
         if (enrollments.isEmpty()) {
             System.out.println("\n📋 No enrollments found in the system.");
             return;
@@ -141,7 +392,7 @@ public class EnrollmentService {
         System.out.println("                ALL ENROLLMENTS (" + enrollments.size() + ")");
         System.out.println("=".repeat(70));
 
-        enrollments.values().stream()
+        enrollments.stream()
                 .sorted(Comparator.comparing(Enrollment::getEnrollmentDate))
                 .forEach(Enrollment::displayInfo);
     }
@@ -150,11 +401,12 @@ public class EnrollmentService {
      * Get enrollment statistics
      */
     public void displayEnrollmentStatistics() {
+        List<Enrollment> enrollments = getAllEnrollments();
         int totalEnrollments = enrollments.size();
-        int activeEnrollments = (int) enrollments.values().stream()
+        int activeEnrollments = (int) enrollments.stream()
                 .filter(Enrollment::isActive)
                 .count();
-        int completedEnrollments = (int) enrollments.values().stream()
+        int completedEnrollments = (int) enrollments.stream()
                 .filter(Enrollment::isCompleted)
                 .count();
 
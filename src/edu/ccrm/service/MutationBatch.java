@@ -0,0 +1,77 @@
+package edu.ccrm.service;
+
+import java.util.*;
+
+/**
+ * Defers afterMutation to the end of a batch of changes made on one thread
+ *
+ * Inside a batch the services still report every change to their listeners, but a listener's
+ * afterMutation runs once when the batch ends instead of after each change. For the
+ * write-ahead log that means one wait for the disk per batch rather than one per record, which
+ * is what bulk paths such as loading a snapshot, importing a file or posting a course's grades
+ * need. Batches nest; only the outermost one flushes.
+ */
+public final class MutationBatch {
+    private static final ThreadLocal<Set<MutationListener>> deferred = new ThreadLocal<>();
+
+    private MutationBatch() {}
+
+    /**
+     * Work that may throw a checked exception
+     */
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public static void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run the work as one batch; afterMutation still runs for the changes made if the work fails
+     */
+    public static <T, E extends Exception> T call(Work<T, E> work) throws E {
+        if (deferred.get() != null) {
+            return work.call();
+        }
+
+        Set<MutationListener> listeners = Collections.newSetFromMap(new IdentityHashMap<>());
+        deferred.set(listeners);
+        Throwable failure = null;
+        try {
+            return work.call();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            deferred.remove();
+            for (MutationListener listener : listeners) {
+                try {
+                    listener.afterMutation();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        throw e;
+                    }
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by the services after releasing their locks: run afterMutation now,
+     * or remember the listeners if the thread is inside a batch
+     */
+    static void afterMutation(List<MutationListener> listeners) {
+        Set<MutationListener> batch = deferred.get();
+        if (batch != null) {
+            batch.addAll(listeners);
+        } else {
+            listeners.forEach(MutationListener::afterMutation);
+        }
+    }
+}
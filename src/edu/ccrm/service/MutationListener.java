@@ -0,0 +1,36 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+
+/**
+ * Observer for committed changes in the services
+ * beforeMutation runs under the record's lock before the service changes anything; a listener
+ * that can no longer accept changes throws there, and the service is left untouched.
+ * Change callbacks run while the service still holds the lock for the affected record,
+ * so a listener sees changes to the same record in the order they were made.
+ * They must be quick and must not call back into the services.
+ * afterMutation runs once the locks are released and may block; inside a MutationBatch
+ * it runs once, when the batch ends.
+ */
+public interface MutationListener {
+
+    /**
+     * Called under the record lock before a change is applied; throwing rejects the change
+     */
+    default void beforeMutation() {}
+
+    default void onStudentChanged(Student student) {}
+
+    default void onStudentRemoved(String studentId) {}
+
+    default void onCourseChanged(Course course) {}
+
+    default void onCourseRemoved(String courseCode) {}
+
+    default void onEnrollmentChanged(Enrollment enrollment) {}
+
+    /**
+     * Called on the mutating thread after the service has released its locks
+     */
+    default void afterMutation() {}
+}
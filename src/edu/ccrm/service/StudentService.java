@@ -1,21 +1,76 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.BKTree;
+import edu.ccrm.util.OrderStatisticTree;
+import edu.ccrm.util.PrefixIndex;
+import edu.ccrm.util.StripedLock;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 /**
  * Student Service class handling all student-related business logic
  * Fixed version without circular dependencies
+ * Safe for concurrent use: mutations of the same student ID are serialized by a striped lock,
+ * and registration numbers are claimed atomically
  */
 public class StudentService {
+    private static final int TRIGRAM_LENGTH = 3;
+
     private final Map<String, Student> students;
-    private final Set<String> usedRegistrationNumbers;
+    // Secondary index: registration number -> student ID
+    private final Map<String, String> registrationIndex;
+    private final StripedLock studentLocks;
+    private final List<MutationListener> listeners;
+    // Secondary indexes: attribute -> students in name order
+    private final Map<StudentStatus, NameOrderedSet> statusStudents;
+    private final Map<String, NameOrderedSet> departmentStudents;
+    private final Map<Integer, NameOrderedSet> semesterStudents;
+    // Inverted index: trigram of the lower-cased name -> students whose name contains it
+    private final Map<String, NameOrderedSet> nameTrigrams;
+    // Edit-distance index: lower-cased name -> students with that name
+    private final BKTree<String> nameTree;
+    // Students by descending GPA, with ranks and positions in O(log n)
+    private final OrderStatisticTree<GpaKey> gpaRanking;
+    // Autocomplete over student IDs and registration numbers
+    private final PrefixIndex idPrefixes;
+    private final PrefixIndex regNoPrefixes;
+    // Running aggregates, and what each student was last indexed and counted as
+    private final StatisticsAccumulator statistics;
+    private final Map<String, IndexEntry> indexedEntries;
 
     public StudentService() {
         this.students = new ConcurrentHashMap<>();
-        this.usedRegistrationNumbers = new HashSet<>();
+        this.registrationIndex = new ConcurrentHashMap<>();
+        this.studentLocks = new StripedLock(64);
+        this.listeners = new CopyOnWriteArrayList<>();
+        // Every status gets its set up front, so the EnumMap itself is never modified
+        this.statusStudents = new EnumMap<>(StudentStatus.class);
+        for (StudentStatus status : StudentStatus.values()) {
+            statusStudents.put(status, new NameOrderedSet());
+        }
+        this.departmentStudents = new ConcurrentHashMap<>();
+        this.semesterStudents = new ConcurrentHashMap<>();
+        this.nameTrigrams = new ConcurrentHashMap<>();
+        this.nameTree = new BKTree<>();
+        this.gpaRanking = new OrderStatisticTree<>(GpaKey.ORDER);
+        this.idPrefixes = new PrefixIndex();
+        this.regNoPrefixes = new PrefixIndex();
+        this.statistics = new StatisticsAccumulator();
+        this.indexedEntries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Register a listener for committed student changes
+     */
+    public void addMutationListener(MutationListener listener) {
+        listeners.add(listener);
     }
 
     /**
@@ -24,17 +79,26 @@ public class StudentService {
     public void addStudent(Student student) {
         validateStudent(student);
 
-        if (students.containsKey(student.getId())) {
-            throw new RuntimeException("Student with ID " + student.getId() + " already exists");
-        }
+        Lock lock = studentLocks.lockFor(student.getId());
+        lock.lock();
+        try {
+            if (students.containsKey(student.getId())) {
+                throw new RuntimeException("Student with ID " + student.getId() + " already exists");
+            }
 
-        if (usedRegistrationNumbers.contains(student.getRegNo())) {
-            throw new RuntimeException("Student with Registration Number " + 
-                student.getRegNo() + " already exists");
-        }
+            listeners.forEach(MutationListener::beforeMutation);
+            if (!claimRegNo(student.getRegNo(), student.getId())) {
+                throw new RuntimeException("Student with Registration Number " + 
+                    student.getRegNo() + " already exists");
+            }
 
-        students.put(student.getId(), student);
-        usedRegistrationNumbers.add(student.getRegNo());
+            students.put(student.getId(), student);
+            reindex(student.getId(), student);
+            listeners.forEach(l -> l.onStudentChanged(student));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
 
         System.out.println("✅ Student added successfully: " + student.getFullName());
 
@@ -50,6 +114,25 @@ public class StudentService {
         return new ArrayList<>(students.values());
     }
 
+    /**
+     * Visit every student while holding its lock, so the visitor never sees a half-applied change
+     * The visitor must be quick and must not call back into the service
+     */
+    public void forEachStudentLocked(Consumer<Student> visitor) {
+        for (String studentId : new ArrayList<>(students.keySet())) {
+            Lock lock = studentLocks.lockFor(studentId);
+            lock.lock();
+            try {
+                Student student = students.get(studentId);
+                if (student != null) {
+                    visitor.accept(student);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
     /**
      * Find student by ID
      */
@@ -61,81 +144,181 @@ public class StudentService {
      * Find student by registration number
      */
     public Optional<Student> findStudentByRegNo(String regNo) {
-        return students.values().stream()
-                .filter(s -> s.getRegNo().equals(regNo))
-                .findFirst();
+        return Optional.ofNullable(lookupByRegNo(regNo));
+    }
+
+    /**
+     * Student IDs starting with the prefix (case-insensitive), at most limit of them
+     */
+    public List<String> completeStudentIds(String prefix, int limit) {
+        return idPrefixes.complete(prefix, limit);
     }
 
     /**
-     * Search students by name (case-insensitive, partial match)
+     * Registration numbers starting with the prefix (case-insensitive), at most limit of them
+     */
+    public List<String> completeRegNos(String prefix, int limit) {
+        return regNoPrefixes.complete(prefix, limit);
+    }
+
+    /**
+     * Search students by name (case-insensitive, partial match), in name order
+     * Candidates come from the smallest trigram posting list and must appear in every other
+     * posting list of the query before the substring is checked; queries shorter than a
+     * trigram fall back to a scan
      */
     public List<Student> searchStudentsByName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return new ArrayList<>();
         }
 
-        return students.values().stream()
-                .filter(s -> s.getFullName().toLowerCase().contains(name.toLowerCase()))
-                .sorted(Comparator.comparing(Student::getFullName))
-                .collect(Collectors.toList());
+        String query = normalizeName(name);
+        if (query.length() < TRIGRAM_LENGTH) {
+            return students.values().stream()
+                    .filter(s -> normalizeName(s.getFullName()).contains(query))
+                    .sorted(Comparator.comparing(Student::getFullName))
+                    .collect(Collectors.toList());
+        }
+
+        List<NameOrderedSet> postings = new ArrayList<>();
+        for (String trigram : trigramsOf(query)) {
+            NameOrderedSet posting = nameTrigrams.get(trigram);
+            if (posting == null) {
+                // No indexed name contains this trigram
+                return new ArrayList<>();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(NameOrderedSet::size));
+
+        List<Student> result = new ArrayList<>();
+        for (String key : postings.get(0).keys) {
+            if (!inAll(postings, key)) {
+                continue;
+            }
+            String studentId = NameOrderedSet.studentIdOf(key);
+            IndexEntry entry = indexedEntries.get(studentId);
+            Student student = students.get(studentId);
+            if (entry != null && student != null && entry.normalizedName.contains(query)) {
+                result.add(student);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find students whose full name is within maxDistance edits of the given name (case-insensitive)
+     * Closest names come first, then name order; the BK-tree only measures a fraction of the names
+     */
+    public List<Student> searchStudentsByNameFuzzy(String name, int maxDistance) {
+        if (name == null || name.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Student> result = new ArrayList<>();
+        for (BKTree.Match<String> match : nameTree.search(normalizeName(name.trim()), maxDistance)) {
+            for (String key : match.getValues()) {
+                Student student = students.get(NameOrderedSet.studentIdOf(key));
+                if (student != null) {
+                    result.add(student);
+                }
+            }
+        }
+        return result;
     }
 
     /**
-     * Get students by department
+     * Get students by department, in name order, through the department index
      */
     public List<Student> getStudentsByDepartment(String department) {
-        return students.values().stream()
-                .filter(s -> department.equals(s.getDepartment()))
-                .sorted(Comparator.comparing(Student::getFullName))
-                .collect(Collectors.toList());
+        return department == null ? new ArrayList<>() : resolve(departmentStudents.get(department));
     }
 
     /**
-     * Get students by status
+     * Get students by status, in name order, through the status index
      */
     public List<Student> getStudentsByStatus(StudentStatus status) {
-        return students.values().stream()
-                .filter(s -> s.getStatus() == status)
-                .collect(Collectors.toList());
+        return status == null ? new ArrayList<>() : resolve(statusStudents.get(status));
     }
 
     /**
-     * Get students by semester
+     * Get students by semester, in name order, through the semester index
      */
     public List<Student> getStudentsBySemester(int semester) {
-        return students.values().stream()
-                .filter(s -> s.getSemester() == semester)
-                .sorted(Comparator.comparing(Student::getFullName))
-                .collect(Collectors.toList());
+        return resolve(semesterStudents.get(semester));
     }
 
     /**
-     * Update student information
+     * Find students matching every given criterion, in name order; null criteria match anything
+     * Walks the smallest matching index and checks the other criteria on each candidate
      */
-    public void updateStudent(Student updatedStudent) {
-        if (!students.containsKey(updatedStudent.getId())) {
-            throw new RuntimeException("Student with ID " + updatedStudent.getId() + " not found");
+    public List<Student> findStudents(String department, StudentStatus status, Integer semester) {
+        List<NameOrderedSet> candidates = new ArrayList<>();
+        if (department != null) {
+            candidates.add(departmentStudents.get(department));
+        }
+        if (status != null) {
+            candidates.add(statusStudents.get(status));
+        }
+        if (semester != null) {
+            candidates.add(semesterStudents.get(semester));
         }
 
-        validateStudent(updatedStudent);
-
-        // Check if registration number conflicts with another student
-        Student existingWithRegNo = students.values().stream()
-                .filter(s -> !s.getId().equals(updatedStudent.getId()) && 
-                           s.getRegNo().equals(updatedStudent.getRegNo()))
-                .findFirst()
-                .orElse(null);
+        if (candidates.isEmpty()) {
+            return students.values().stream()
+                    .sorted(Comparator.comparing(Student::getFullName))
+                    .collect(Collectors.toList());
+        }
+        if (candidates.contains(null)) {
+            // A criterion with no index entry matches nobody
+            return new ArrayList<>();
+        }
 
-        if (existingWithRegNo != null) {
-            throw new RuntimeException("Registration number " + updatedStudent.getRegNo() + 
-                " is already used by another student");
+        NameOrderedSet smallest = Collections.min(candidates, Comparator.comparingInt(NameOrderedSet::size));
+        List<Student> result = new ArrayList<>();
+        for (String key : smallest.keys) {
+            Student student = students.get(NameOrderedSet.studentIdOf(key));
+            if (student != null &&
+                (department == null || department.equals(student.getDepartment())) &&
+                (status == null || status == student.getStatus()) &&
+                (semester == null || semester == student.getSemester())) {
+                result.add(student);
+            }
         }
+        return result;
+    }
+
+    /**
+     * Update student information
+     */
+    public void updateStudent(Student updatedStudent) {
+        validateStudent(updatedStudent);
 
-        Student oldStudent = students.get(updatedStudent.getId());
-        usedRegistrationNumbers.remove(oldStudent.getRegNo());
-        usedRegistrationNumbers.add(updatedStudent.getRegNo());
+        Lock lock = studentLocks.lockFor(updatedStudent.getId());
+        lock.lock();
+        try {
+            Student oldStudent = students.get(updatedStudent.getId());
+            if (oldStudent == null) {
+                throw new RuntimeException("Student with ID " + updatedStudent.getId() + " not found");
+            }
 
-        students.put(updatedStudent.getId(), updatedStudent);
+            listeners.forEach(MutationListener::beforeMutation);
+            // Check if registration number conflicts with another student
+            if (!claimRegNo(updatedStudent.getRegNo(), updatedStudent.getId())) {
+                throw new RuntimeException("Registration number " + updatedStudent.getRegNo() + 
+                    " is already used by another student");
+            }
+
+            students.put(updatedStudent.getId(), updatedStudent);
+            if (!oldStudent.getRegNo().equals(updatedStudent.getRegNo())) {
+                registrationIndex.remove(oldStudent.getRegNo(), oldStudent.getId());
+            }
+            reindex(updatedStudent.getId(), updatedStudent);
+            listeners.forEach(l -> l.onStudentChanged(updatedStudent));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
         System.out.println("✅ Student updated successfully: " + updatedStudent.getFullName());
     }
 
@@ -143,56 +326,316 @@ public class StudentService {
      * Delete student by ID
      */
     public boolean deleteStudent(String studentId) {
-        Student student = students.get(studentId);
-        if (student == null) {
-            throw new RuntimeException("Student with ID " + studentId + " not found");
-        }
+        Student student;
+        Lock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        try {
+            student = students.get(studentId);
+            if (student == null) {
+                throw new RuntimeException("Student with ID " + studentId + " not found");
+            }
 
-        usedRegistrationNumbers.remove(student.getRegNo());
-        students.remove(studentId);
+            listeners.forEach(MutationListener::beforeMutation);
+            students.remove(studentId);
+            registrationIndex.remove(student.getRegNo(), studentId);
+            reindex(studentId, null);
+            listeners.forEach(l -> l.onStudentRemoved(studentId));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
 
         System.out.println("✅ Student deleted successfully: " + student.getFullName());
         return true;
     }
 
     /**
-     * Get students with high GPA (above threshold)
+     * Install a persisted student directly, replacing any record with the same ID
+     * Skips validation and console output; used when loading a snapshot
+     */
+    public void restoreStudent(Student student) {
+        Lock lock = studentLocks.lockFor(student.getId());
+        lock.lock();
+        try {
+            listeners.forEach(MutationListener::beforeMutation);
+            Student previous = students.put(student.getId(), student);
+            if (previous != null && !previous.getRegNo().equals(student.getRegNo())) {
+                registrationIndex.remove(previous.getRegNo(), student.getId());
+            }
+            registrationIndex.put(student.getRegNo(), student.getId());
+            reindex(student.getId(), student);
+            listeners.forEach(l -> l.onStudentChanged(student));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
+    }
+
+    /**
+     * Remove a student without checks or console output; does nothing if the ID is unknown
+     * Used when replaying a logged delete
+     */
+    public void purgeStudent(String studentId) {
+        Lock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        try {
+            Student student = students.get(studentId);
+            if (student == null) {
+                return;
+            }
+            listeners.forEach(MutationListener::beforeMutation);
+            students.remove(studentId);
+            registrationIndex.remove(student.getRegNo(), studentId);
+            reindex(studentId, null);
+            listeners.forEach(l -> l.onStudentRemoved(studentId));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
+    }
+
+    /**
+     * Copy a grade already posted on the student's enrollment onto the student record, so GPA,
+     * statistics and GPA rankings follow it; a regrade replaces the earlier grade
+     * The enrollment is the record of which courses a student takes, so the course is added to
+     * the student record if it is not there yet. Call only after EnrollmentService accepted the
+     * grade, inside the same MutationBatch. Does nothing if the ID is unknown.
+     */
+    public void recordGrade(String studentId, String courseCode, Grade grade) {
+        Lock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        try {
+            Student student = students.get(studentId);
+            if (student == null) {
+                return;
+            }
+
+            listeners.forEach(MutationListener::beforeMutation);
+            if (!student.getEnrolledCourses().contains(courseCode)) {
+                student.enroll(courseCode);
+            }
+            student.assignGrade(courseCode, grade);
+            reindex(studentId, student);
+            listeners.forEach(l -> l.onStudentChanged(student));
+        } finally {
+            lock.unlock();
+        }
+        MutationBatch.afterMutation(listeners);
+    }
+
+    /**
+     * Get students with GPA at or above the threshold, highest first, from the GPA ranking
      */
     public List<Student> getTopPerformers(double gpaThreshold) {
-        return students.values().stream()
-                .filter(s -> s.getGpa() >= gpaThreshold)
-                .sorted(Comparator.comparingDouble(Student::getGpa).reversed())
-                .collect(Collectors.toList());
+        // Every GPA at or above the threshold sorts before this bound
+        return resolveRanked(gpaRanking.before(GpaKey.bound(Math.nextDown(gpaThreshold))));
+    }
+
+    /**
+     * The n students with the highest GPA, highest first; equal GPAs are in ID order
+     */
+    public List<Student> getTopStudents(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Number of students must be positive");
+        }
+        return resolveRanked(gpaRanking.first(n));
+    }
+
+    /**
+     * Class rank by GPA: 1 plus the number of students with a higher GPA, so ties share a rank
+     */
+    public int getClassRank(String studentId) {
+        IndexEntry entry = indexedEntries.get(studentId);
+        if (entry == null) {
+            throw new RuntimeException("Student with ID " + studentId + " not found");
+        }
+        return gpaRanking.rank(GpaKey.bound(entry.gpa)) + 1;
+    }
+
+    /**
+     * Percentage of students with a lower GPA than the given student
+     */
+    public double getGpaPercentile(String studentId) {
+        IndexEntry entry = indexedEntries.get(studentId);
+        if (entry == null) {
+            throw new RuntimeException("Student with ID " + studentId + " not found");
+        }
+        int total = gpaRanking.size();
+        int atOrAbove = gpaRanking.rank(GpaKey.bound(Math.nextDown(entry.gpa)));
+        return total == 0 ? 0.0 : 100.0 * Math.max(0, total - atOrAbove) / total;
     }
 
     /**
      * Get student statistics
+     * Served from aggregates kept up to date on every change, so the cost does not grow with the roster
      */
     public StudentStatistics getStudentStatistics() {
-        if (students.isEmpty()) {
-            return new StudentStatistics(0, 0.0, 0.0, 0.0, new HashMap<>(), new HashMap<>());
+        return statistics.snapshot();
+    }
+
+    /**
+     * Move a student's index entries and statistics from what was last indexed to its current state
+     * Caller must hold the student's lock; a null student removes the entries
+     */
+    private void reindex(String studentId, Student student) {
+        IndexEntry current = student == null ? null : new IndexEntry(student);
+        IndexEntry previous = current == null ? indexedEntries.remove(studentId)
+                                              : indexedEntries.put(studentId, current);
+        if (previous != null) {
+            statusStudents.get(previous.status).remove(previous.nameKey);
+            if (previous.department != null) {
+                departmentStudents.get(previous.department).remove(previous.nameKey);
+            }
+            semesterStudents.get(previous.semester).remove(previous.nameKey);
+        }
+        if (previous == null) {
+            idPrefixes.add(studentId);
+        } else if (current == null) {
+            idPrefixes.remove(studentId);
+        }
+        if (previous != null && (current == null || !previous.regNo.equals(current.regNo))) {
+            regNoPrefixes.remove(previous.regNo);
+        }
+        if (current != null && (previous == null || !previous.regNo.equals(current.regNo))) {
+            regNoPrefixes.add(current.regNo);
+        }
+        if (previous == null || current == null || Double.compare(previous.gpa, current.gpa) != 0) {
+            if (previous != null) {
+                gpaRanking.remove(new GpaKey(previous.gpa, studentId));
+            }
+            if (current != null) {
+                gpaRanking.add(new GpaKey(current.gpa, studentId));
+            }
+        }
+        // Most updates keep the name, and then the trigram postings and name tree stay as they are
+        boolean renamed = previous == null || current == null || !previous.nameKey.equals(current.nameKey);
+        if (previous != null && renamed) {
+            for (String trigram : trigramsOf(previous.normalizedName)) {
+                nameTrigrams.get(trigram).remove(previous.nameKey);
+            }
+            nameTree.remove(previous.normalizedName, previous.nameKey);
+        }
+        if (current != null) {
+            statusStudents.get(current.status).add(current.nameKey);
+            if (current.department != null) {
+                departmentStudents.computeIfAbsent(current.department, k -> new NameOrderedSet()).add(current.nameKey);
+            }
+            semesterStudents.computeIfAbsent(current.semester, k -> new NameOrderedSet()).add(current.nameKey);
+        }
+        if (current != null && renamed) {
+            for (String trigram : trigramsOf(current.normalizedName)) {
+                nameTrigrams.computeIfAbsent(trigram, k -> new NameOrderedSet()).add(current.nameKey);
+            }
+            nameTree.add(current.normalizedName, current.nameKey);
+        }
+        statistics.replace(previous, current);
+    }
+
+    /**
+     * Look up ranked students; a student removed since the ranking was read is skipped
+     */
+    private List<Student> resolveRanked(List<GpaKey> keys) {
+        List<Student> result = new ArrayList<>(keys.size());
+        for (GpaKey key : keys) {
+            Student student = students.get(key.studentId);
+            if (student != null) {
+                result.add(student);
+            }
         }
+        return result;
+    }
+
+    private static boolean inAll(List<NameOrderedSet> postings, String key) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).keys.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        // Calculate statistics using Stream API
-        DoubleSummaryStatistics gpaStats = students.values().stream()
-                .mapToDouble(Student::getGpa)
-                .summaryStatistics();
+    private static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
 
-        Map<StudentStatus, Long> statusDistribution = students.values().stream()
-                .collect(Collectors.groupingBy(Student::getStatus, Collectors.counting()));
+    /**
+     * Distinct substrings of trigram length
+     */
+    private static Set<String> trigramsOf(String normalizedName) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= normalizedName.length(); i++) {
+            trigrams.add(normalizedName.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
 
-        Map<String, Long> departmentDistribution = students.values().stream()
-                .filter(s -> s.getDepartment() != null)
-                .collect(Collectors.groupingBy(Student::getDepartment, Collectors.counting()));
+    /**
+     * Look up indexed students; a key whose student was just removed is skipped
+     */
+    private List<Student> resolve(NameOrderedSet index) {
+        if (index == null) {
+            return new ArrayList<>();
+        }
 
-        return new StudentStatistics(
-            students.size(),
-            gpaStats.getAverage(),
-            gpaStats.getMin(),
-            gpaStats.getMax(),
-            statusDistribution,
-            departmentDistribution
-        );
+        List<Student> result = new ArrayList<>();
+        for (String key : index.keys) {
+            Student student = students.get(NameOrderedSet.studentIdOf(key));
+            if (student != null) {
+                result.add(student);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolve a registration number through the index.
+     * Entries are verified against the student's current regNo, so an entry
+     * left behind by a Student mutated in place is treated as free.
+     */
+    private Student lookupByRegNo(String regNo) {
+        if (regNo == null) {
+            return null;
+        }
+
+        String studentId = registrationIndex.get(regNo);
+        if (studentId == null) {
+            return null;
+        }
+
+        // A missing student means the claim is still in flight; leave it alone
+        Student student = students.get(studentId);
+        if (student == null) {
+            return null;
+        }
+
+        if (!regNo.equals(student.getRegNo())) {
+            registrationIndex.remove(regNo, studentId);
+            return null;
+        }
+        return student;
+    }
+
+    /**
+     * Atomically claim a registration number for a student ID.
+     * Returns false if another student holds it or is in the middle of claiming it.
+     */
+    private boolean claimRegNo(String regNo, String studentId) {
+        while (true) {
+            String holder = registrationIndex.putIfAbsent(regNo, studentId);
+            if (holder == null || holder.equals(studentId)) {
+                return true;
+            }
+
+            Student owner = students.get(holder);
+            if (owner == null || regNo.equals(owner.getRegNo())) {
+                return false;
+            }
+
+            // Stale entry from a Student mutated in place: take it over
+            if (registrationIndex.replace(regNo, holder, studentId)) {
+                return true;
+            }
+        }
     }
 
     /**
@@ -248,6 +691,136 @@ public class StudentService {
                 .forEach(Student::displayInfo);
     }
 
+    /**
+     * The values a student was indexed and counted under
+     */
+    private static final class IndexEntry {
+        private final String nameKey;
+        private final String normalizedName;
+        private final String regNo;
+        private final double gpa;
+        private final StudentStatus status;
+        private final String department;
+        private final int semester;
+
+        IndexEntry(Student student) {
+            this.nameKey = NameOrderedSet.keyOf(student);
+            this.normalizedName = normalizeName(student.getFullName());
+            this.regNo = student.getRegNo();
+            this.gpa = student.getGpa();
+            this.status = student.getStatus();
+            this.department = student.getDepartment();
+            this.semester = student.getSemester();
+        }
+    }
+
+    /**
+     * Position in the GPA ranking: highest GPA first, then student ID
+     * A bound has no student ID and sorts before every student with the same GPA
+     */
+    private static final class GpaKey {
+        static final Comparator<GpaKey> ORDER = Comparator.comparingDouble((GpaKey key) -> key.gpa).reversed()
+            .thenComparing(key -> key.studentId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final double gpa;
+        private final String studentId;
+
+        GpaKey(double gpa, String studentId) {
+            this.gpa = gpa;
+            this.studentId = studentId;
+        }
+
+        static GpaKey bound(double gpa) {
+            return new GpaKey(gpa, null);
+        }
+    }
+
+    /**
+     * Students ordered by name, stored as "name NUL id" keys so equal names stay distinct
+     * The size is tracked separately because a skip list counts its elements one by one
+     */
+    private static class NameOrderedSet {
+        private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        static String keyOf(Student student) {
+            return student.getFullName() + '\u0000' + student.getId();
+        }
+
+        static String studentIdOf(String key) {
+            return key.substring(key.lastIndexOf('\u0000') + 1);
+        }
+
+        void add(String key) {
+            if (keys.add(key)) {
+                size.incrementAndGet();
+            }
+        }
+
+        void remove(String key) {
+            if (keys.remove(key)) {
+                size.decrementAndGet();
+            }
+        }
+
+        int size() {
+            return size.get();
+        }
+    }
+
+    /**
+     * Running totals behind getStudentStatistics
+     * One monitor keeps the count, GPA sum and distributions consistent with each other
+     */
+    private static class StatisticsAccumulator {
+        private int totalStudents;
+        private double gpaSum;
+        // GPA multiset for min and max; GPAs take few distinct values, so this stays small
+        private final TreeMap<Double, Integer> gpaCounts = new TreeMap<>();
+        private final Map<StudentStatus, Long> statusCounts = new EnumMap<>(StudentStatus.class);
+        private final Map<String, Long> departmentCounts = new HashMap<>();
+
+        synchronized void replace(IndexEntry previous, IndexEntry current) {
+            if (previous != null) {
+                totalStudents--;
+                gpaSum -= previous.gpa;
+                gpaCounts.computeIfPresent(previous.gpa, (gpa, count) -> count == 1 ? null : count - 1);
+                statusCounts.computeIfPresent(previous.status, (status, count) -> count == 1 ? null : count - 1);
+                if (previous.department != null) {
+                    departmentCounts.computeIfPresent(previous.department,
+                        (department, count) -> count == 1 ? null : count - 1);
+                }
+            }
+            if (current != null) {
+                totalStudents++;
+                gpaSum += current.gpa;
+                gpaCounts.merge(current.gpa, 1, Integer::sum);
+                statusCounts.merge(current.status, 1L, Long::sum);
+                if (current.department != null) {
+                    departmentCounts.merge(current.department, 1L, Long::sum);
+                }
+            }
+            if (totalStudents == 0) {
+                // Drop rounding error left over from the additions and subtractions
+                gpaSum = 0.0;
+            }
+        }
+
+        synchronized StudentStatistics snapshot() {
+            if (totalStudents == 0) {
+                return new StudentStatistics(0, 0.0, 0.0, 0.0, new HashMap<>(), new HashMap<>());
+            }
+            return new StudentStatistics(
+                totalStudents,
+                gpaSum / totalStudents,
+                gpaCounts.firstKey(),
+                gpaCounts.lastKey(),
+                statusCounts,
+                departmentCounts
+            );
+        }
+    }
+
     /**
      * Inner class for student statistics
      */
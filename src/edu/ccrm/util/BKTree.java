@@ -0,0 +1,237 @@
+package edu.ccrm.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * BK-tree over terms for lookups within an edit distance, with a set of values per term
+ *
+ * Each child edge is labelled with the child's Levenshtein distance from its parent. By the
+ * triangle inequality a match within k of the query can only sit under edges labelled within
+ * k of the query's distance to the parent, so a search measures a small part of the tree
+ * instead of every term.
+ *
+ * Children sit in an array indexed by edge distance, so a search reads only the slots in its
+ * window. Searches take no locks; an insert locks just the parent whose edge it fills and
+ * publishes a new array. Removing a value leaves its node in place, empty, because the node
+ * still routes searches to its children.
+ */
+public class BKTree<V extends Comparable<V>> {
+    private volatile Node<V> root;
+
+    /**
+     * Attach a value to a term, adding the term if needed
+     */
+    public void add(String term, V value) {
+        Node<V> node = root;
+        if (node == null) {
+            synchronized (this) {
+                if (root == null) {
+                    root = new Node<>(term);
+                }
+                node = root;
+            }
+        }
+
+        while (true) {
+            int distance = distance(term, node.term);
+            if (distance == 0) {
+                node.values.add(value);
+                return;
+            }
+            Node<V> child = node.child(distance);
+            if (child == null) {
+                child = node.attach(distance, term, value);
+                if (child == null) {
+                    return;
+                }
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Detach a value from a term; the term's node stays as a routing node
+     */
+    public void remove(String term, V value) {
+        Node<V> node = root;
+        while (node != null) {
+            int distance = distance(term, node.term);
+            if (distance == 0) {
+                node.values.remove(value);
+                return;
+            }
+            node = node.child(distance);
+        }
+    }
+
+    /**
+     * Terms within maxDistance of the query that still have values, nearest first
+     */
+    public List<Match<V>> search(String query, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Edit distance must not be negative");
+        }
+
+        List<Match<V>> matches = new ArrayList<>();
+        Node<V> start = root;
+        if (start == null) {
+            return matches;
+        }
+
+        char[] target = query.toCharArray();
+        int[] previousRow = new int[target.length + 1];
+        int[] currentRow = new int[target.length + 1];
+        Deque<Node<V>> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Node<V> node = pending.pop();
+            Node<V>[] children = node.children;
+
+            // Beyond the longest edge plus maxDistance neither this node nor any child can
+            // match, so the distance only has to be exact up to there
+            int limit = Math.max(children.length - 1, 0) + maxDistance;
+            int distance = boundedDistance(node.term, target, limit, previousRow, currentRow);
+            if (distance <= maxDistance && !node.values.isEmpty()) {
+                matches.add(new Match<>(node.term, distance, node.values));
+            }
+            int last = Math.min(distance + maxDistance, children.length - 1);
+            for (int edge = Math.max(1, distance - maxDistance); edge <= last; edge++) {
+                if (children[edge] != null) {
+                    pending.push(children[edge]);
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match<V>::getDistance).thenComparing(Match::getTerm));
+        return matches;
+    }
+
+    /**
+     * Levenshtein distance, or limit + 1 once it is known to exceed limit
+     * Only the diagonal band of width limit is computed, and the rows stop as soon as a whole
+     * row exceeds the limit; the row buffers must hold target.length + 1 entries.
+     */
+    static int boundedDistance(String term, char[] target, int limit, int[] previous, int[] current) {
+        int rows = term.length();
+        int columns = target.length;
+        int beyond = limit + 1;
+        if (Math.abs(rows - columns) > limit) {
+            return beyond;
+        }
+
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = Math.min(j, beyond);
+        }
+        for (int i = 1; i <= rows; i++) {
+            int from = Math.max(1, i - limit);
+            int to = Math.min(columns, i + limit);
+            current[0] = Math.min(i, beyond);
+            if (from > 1) {
+                current[from - 1] = beyond;
+            }
+            int rowMin = current[0];
+            char c = term.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (c == target[j - 1] ? 0 : 1);
+                int value = Math.min(Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1), beyond);
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (to < columns) {
+                current[to + 1] = beyond;
+            }
+            if (rowMin >= beyond) {
+                return beyond;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[columns];
+    }
+
+    /**
+     * Levenshtein distance with two rolling rows
+     */
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static class Node<V> {
+        private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+        final String term;
+        final Set<V> values = new ConcurrentSkipListSet<>();
+        // Child at each edge distance; replaced, never modified, once published
+        volatile Node<V>[] children;
+
+        @SuppressWarnings("unchecked")
+        Node(String term) {
+            this.term = term;
+            this.children = (Node<V>[]) NO_CHILDREN;
+        }
+
+        Node<V> child(int distance) {
+            Node<V>[] current = children;
+            return distance < current.length ? current[distance] : null;
+        }
+
+        /**
+         * Add a child holding the value at an empty edge; if another insert filled the edge
+         * first, return that child instead
+         */
+        synchronized Node<V> attach(int distance, String term, V value) {
+            Node<V> existing = child(distance);
+            if (existing != null) {
+                return existing;
+            }
+            Node<V> created = new Node<>(term);
+            created.values.add(value);
+            Node<V>[] grown = Arrays.copyOf(children, Math.max(children.length, distance + 1));
+            grown[distance] = created;
+            children = grown;
+            return null;
+        }
+    }
+
+    /**
+     * A matching term, its distance from the query, and its values in order
+     */
+    public static class Match<V> {
+        private final String term;
+        private final int distance;
+        private final Collection<V> values;
+
+        Match(String term, int distance, Collection<V> values) {
+            this.term = term;
+            this.distance = distance;
+            this.values = values;
+        }
+
+        public String getTerm() { return term; }
+        public int getDistance() { return distance; }
+        public Collection<V> getValues() { return Collections.unmodifiableCollection(values); }
+    }
+}
@@ -0,0 +1,85 @@
+package edu.ccrm.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary assigning dense int codes to string identifiers
+ * Codes start at 0 and are never reused, so they can be packed into composite keys
+ * Thread-safe: lookups are lock-free, only new codes are assigned under a lock
+ */
+public class IdDictionary {
+    public static final int NOT_FOUND = -1;
+
+    private final Map<String, Integer> codes;
+    private final List<String> values;
+
+    public IdDictionary() {
+        this.codes = new ConcurrentHashMap<>();
+        this.values = new ArrayList<>();
+    }
+
+    /**
+     * Get the code for an identifier, assigning a new one if it is unknown
+     */
+    public int encode(String id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        return assign(id);
+    }
+
+    private synchronized int assign(String id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+
+        int newCode = values.size();
+        values.add(id);
+        codes.put(id, newCode);
+        return newCode;
+    }
+
+    /**
+     * Get the code for an identifier without assigning one
+     * Returns NOT_FOUND for identifiers that were never encoded
+     */
+    public int lookup(String id) {
+        Integer code = codes.get(id);
+        return code != null ? code : NOT_FOUND;
+    }
+
+    /**
+     * Get the identifier for a code
+     */
+    public synchronized String decode(int code) {
+        if (code < 0 || code >= values.size()) {
+            throw new IllegalArgumentException("Unknown dictionary code: " + code);
+        }
+        return values.get(code);
+    }
+
+    /**
+     * Number of identifiers in the dictionary
+     */
+    public synchronized int size() {
+        return values.size();
+    }
+
+    /**
+     * Pack two codes into a single long key (first code in the high 32 bits)
+     */
+    public static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    public static int highCode(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int lowCode(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,213 @@
+package edu.ccrm.util;
+
+import java.util.*;
+
+/**
+ * Sorted set that also answers "how many keys come before this one" and "which key is at
+ * position i" in O(log n)
+ *
+ * A treap whose nodes carry their subtree size: random priorities keep it balanced in
+ * expectation, and the sizes let rank and select skip whole subtrees. One monitor guards the
+ * tree, as the operations are short.
+ */
+public class OrderStatisticTree<K> {
+    private final Comparator<? super K> comparator;
+    private final SplittableRandom priorities = new SplittableRandom();
+    private Node<K> root;
+
+    public OrderStatisticTree(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Add a key; returns false if an equal key is already present
+     */
+    public synchronized boolean add(K key) {
+        if (contains(root, key)) {
+            return false;
+        }
+        root = insert(root, new Node<>(key, priorities.nextInt()));
+        return true;
+    }
+
+    /**
+     * Remove a key; returns false if it was not present
+     */
+    public synchronized boolean remove(K key) {
+        if (!contains(root, key)) {
+            return false;
+        }
+        root = delete(root, key);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Number of keys ordered before the given key, which need not be present
+     */
+    public synchronized int rank(K key) {
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            if (comparator.compare(key, node.key) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Key at a zero-based position in order
+     */
+    public synchronized K get(int index) {
+        if (index < 0 || index >= size(root)) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for size " + size(root));
+        }
+        Node<K> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.key;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * The first count keys in order (fewer if the tree is smaller)
+     */
+    public synchronized List<K> first(int count) {
+        List<K> keys = new ArrayList<>(Math.max(0, Math.min(count, size(root))));
+        Deque<Node<K>> path = new ArrayDeque<>();
+        Node<K> node = root;
+        while (keys.size() < count && (node != null || !path.isEmpty())) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            keys.add(node.key);
+            node = node.right;
+        }
+        return keys;
+    }
+
+    /**
+     * All keys ordered before the given key, which need not be present
+     */
+    public synchronized List<K> before(K key) {
+        return first(rank(key));
+    }
+
+    private boolean contains(Node<K> node, K key) {
+        while (node != null) {
+            int comparison = comparator.compare(key, node.key);
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (comparator.compare(inserted.key, node.key) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<K> delete(Node<K> node, K key) {
+        int comparison = comparator.compare(key, node.key);
+        if (comparison < 0) {
+            node.left = delete(node.left, key);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, key);
+        } else {
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Join two treaps where every key of left comes before every key of right
+     */
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private Node<K> rotateRight(Node<K> node) {
+        Node<K> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private Node<K> rotateLeft(Node<K> node) {
+        Node<K> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static class Node<K> {
+        final K key;
+        final int priority;
+        Node<K> left;
+        Node<K> right;
+        int size = 1;
+
+        Node(K key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + OrderStatisticTree.size(left) + OrderStatisticTree.size(right);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package edu.ccrm.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted set of keys answering case-insensitive prefix completions
+ *
+ * Keys are stored as "lower-cased key NUL key", so every key starting with a prefix sits in one
+ * contiguous range of the set. A completion seeks to the prefix and reads forward until a key no
+ * longer matches or the limit is reached, so its cost follows the limit rather than the number
+ * of keys. Safe for concurrent use.
+ */
+public class PrefixIndex {
+    private static final char SEPARATOR = '\u0000';
+
+    private final NavigableSet<String> entries = new ConcurrentSkipListSet<>();
+
+    public void add(String key) {
+        if (key != null) {
+            entries.add(entryOf(key));
+        }
+    }
+
+    public void remove(String key) {
+        if (key != null) {
+            entries.remove(entryOf(key));
+        }
+    }
+
+    /**
+     * Up to limit keys starting with the prefix, ignoring case, in lower-cased key order
+     */
+    public List<String> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Completion limit must be positive");
+        }
+        List<String> completions = new ArrayList<>();
+        if (prefix == null) {
+            return completions;
+        }
+
+        String normalizedPrefix = normalize(prefix);
+        for (String entry : entries.tailSet(normalizedPrefix, true)) {
+            if (!entry.startsWith(normalizedPrefix)) {
+                break;
+            }
+            completions.add(entry.substring(entry.indexOf(SEPARATOR) + 1));
+            if (completions.size() == limit) {
+                break;
+            }
+        }
+        return completions;
+    }
+
+    private static String entryOf(String key) {
+        return normalize(key) + SEPARATOR + key;
+    }
+
+    private static String normalize(String key) {
+        return key.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,38 @@
+package edu.ccrm.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks shared by keys with the same hash stripe
+ * Operations on different keys rarely contend, without allocating one lock per key
+ */
+public class StripedLock {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLock(int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a positive power of two");
+        }
+
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = stripes - 1;
+    }
+
+    /**
+     * Get the lock guarding a key
+     */
+    public ReentrantLock lockFor(Object key) {
+        int hash = key.hashCode();
+        // Spread high bits down, as HashMap does, so similar keys land on different stripes
+        hash ^= (hash >>> 16);
+        return locks[hash & mask];
+    }
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+}